@@ -0,0 +1,4 @@
+#!/bin/bash
+
+echo "=== Banc d'essai agents / RMI (CSV dans bench.csv) ==="
+java -cp bin Bench.Benchmark --rmi ../rmi-approach --out bench.csv "$@"
@@ -0,0 +1,4 @@
+#!/bin/bash
+
+echo "=== Démarrage du cluster local (liens émulés : 40 ms +/- 5 ms, 2 Mo/s) ==="
+java -cp bin Cluster.LocalCluster --link 40,5,2000 --rmi ../rmi-approach "$@"
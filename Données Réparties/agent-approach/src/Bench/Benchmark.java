@@ -0,0 +1,358 @@
+// Bench/Benchmark.java
+package Bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Banc d'essai agents / RMI.
+ * Pour chaque scénario et chaque point du balayage, lance les serveurs dans
+ * des processus fils, puis un seul processus client qui répète le test
+ * (échauffement puis mesures, -Dbench.runs) : les mesures profitent ainsi du
+ * JIT et des connexions déjà établies. Écrit une ligne CSV : percentiles de
+ * latence, octets échangés et temps CPU du client et des serveurs.
+ *
+ * Les clients tournent avec -Dbench=true : leur console est coupée et la
+ * durée mesurée est celle qu'ils écrivent sur la ligne "BENCH" de chaque
+ * exécution (voir platform.BenchReport), donc sans les affichages. Octets et
+ * CPU des serveurs sont comptés d'une ligne BENCH à la suivante.
+ *
+ * Scénarios (--scenarios, séparés par des virgules) :
+ *   hotel               HotelAgent, balayage --records
+ *   document            CompressionAgent, balayage --sizes x --compress
+ *   rmi-names[:mode]    Client (single, batch, async, join, cached...), --records
+ *   rmi-file[:stream]   CompressClient, --sizes x --compress
+ *
+ * Options :
+ *   --records 1000,20000      nombres d'enregistrements
+ *   --sizes 1000,10000        tailles de document en Ko
+ *   --compress 0,0.5,1        part compressible du document
+ *   --warmup 2 --reps 10      exécutions ignorées puis mesurées
+ *   --rmi dir                 dossier rmi-approach, classes compilées
+ *   --out fichier.csv         sortie (sinon la console)
+ *
+ * Exemple : java -cp bin Bench.Benchmark --rmi ../rmi-approach --reps 20
+ *
+ * Les octets sont ceux de l'interface loopback (/proc/net/dev) pendant
+ * l'exécution du client : Linux seulement (-1 ailleurs), et ils incluent tout
+ * autre trafic local, dont la diffusion de charge entre noeuds d'agents.
+ */
+public class Benchmark {
+
+    private static final String CSV_HEADER =
+        "scenario,records,sizeKB,compressibility,reps,"
+        + "p50Ms,p90Ms,p99Ms,meanMs,minMs,maxMs,"
+        + "bytesPerRun,clientCpuMs,serverCpuMs";
+
+    // délai maximum d'une exécution du client
+    private static final long RUN_TIMEOUT_MS = 120_000;
+
+    private static String classpath = System.getProperty("java.class.path");
+    private static File rmiDir = new File("../rmi-approach");
+
+    public static void main(String[] args) throws Exception {
+        List<String> scenarios = List.of("hotel", "document", "rmi-names:batch", "rmi-file");
+        List<String> records = List.of("20000");
+        List<String> sizes = List.of("10000");
+        List<String> compress = List.of("0", "1");
+        int warmup = 2;
+        int reps = 10;
+        String out = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--scenarios" -> scenarios = split(args[++i]);
+                case "--records" -> records = split(args[++i]);
+                case "--sizes" -> sizes = split(args[++i]);
+                case "--compress" -> compress = split(args[++i]);
+                case "--warmup" -> warmup = Integer.parseInt(args[++i]);
+                case "--reps" -> reps = Integer.parseInt(args[++i]);
+                case "--rmi" -> rmiDir = new File(args[++i]);
+                case "--out" -> out = args[++i];
+                default -> throw new IllegalArgumentException(args[i]);
+            }
+        }
+
+        PrintWriter csv = out == null
+            ? new PrintWriter(System.out, true)
+            : new PrintWriter(Files.newBufferedWriter(Path.of(out)), true);
+        csv.println(CSV_HEADER);
+
+        for (String scenario : scenarios) {
+            String name = scenario.split(":")[0];
+            boolean bySize = name.equals("document") || name.equals("rmi-file");
+
+            if (bySize) {
+                for (String size : sizes)
+                    for (String c : compress)
+                        csv.println(measure(scenario, "-", size, c, warmup, reps));
+            } else {
+                for (String n : records)
+                    csv.println(measure(scenario, n, "-", "-", warmup, reps));
+            }
+        }
+        csv.close();
+    }
+
+    private static String measure(String scenario, String records, String sizeKB,
+                                  String compressibility, int warmup, int reps)
+        throws Exception {
+
+        String[] parts = scenario.split(":", 2);
+        String mode = parts.length > 1 ? parts[1] : null;
+
+        List<String> props = new ArrayList<>(List.of("-Dbench=true"));
+        if (!records.equals("-"))
+            props.add("-Drecordnum=" + records);
+        if (!sizeKB.equals("-"))
+            props.add("-DsizeKB=" + sizeKB);
+        if (!compressibility.equals("-"))
+            props.add("-Dcompressibility=" + compressibility);
+
+        System.err.println("== " + scenario + " records=" + records
+            + " sizeKB=" + sizeKB + " compressibility=" + compressibility);
+
+        List<Child> servers = new ArrayList<>();
+        try {
+            File dir = new File(".");
+            String cp = classpath;
+            List<String> client;
+
+            switch (parts[0]) {
+                case "hotel" -> {
+                    servers.add(java(dir, cp, props, "HotelServer.HotelServer")
+                        .ready("Server listening"));
+                    servers.add(java(dir, cp, props, "DirectoryServer.DirectoryServer")
+                        .ready("Server listening"));
+                    client = command(cp, props, "ClientHotel.ClientHotel");
+                }
+                case "document" -> {
+                    servers.add(java(dir, cp, props, "DocumentServer.DocumentServer")
+                        .ready("Server listening"));
+                    client = command(cp, props, "ClientDocument.ClientDocument");
+                }
+                case "rmi-names" -> {
+                    dir = new File(rmiDir, "ExampleMessagesNumberReduction");
+                    cp = dir.getAbsolutePath();
+                    servers.add(registry(cp));
+                    servers.add(java(dir, cp, props, "ServerAImpl")
+                        .ready("Name Service ready"));
+                    servers.add(java(dir, cp, props, "ServerBImpl")
+                        .ready("Repository service ready"));
+                    client = command(cp, props, "Client");
+                }
+                case "rmi-file" -> {
+                    dir = new File(rmiDir, "ExampleServerExtension");
+                    cp = dir.getAbsolutePath();
+                    servers.add(registry(cp));
+                    servers.add(java(dir, cp, props, "FileServer")
+                        .ready("File Server ready"));
+                    client = command(cp, props, "CompressClient");
+                }
+                default -> throw new IllegalArgumentException(scenario);
+            }
+            if (mode != null)
+                client.add(mode);
+            client.add(1, "-Dbench.runs=" + (warmup + reps));
+
+            long[] elapsed = new long[reps];
+            long bytes = 0, clientCpu = 0, serverCpu = 0;
+
+            Child run = new Child(dir, client);
+            try {
+                long net = loopbackBytes();
+                long cpu = cpuMs(servers);
+                for (int i = 0; i < warmup + reps; i++) {
+                    long[] result = result(run.await("BENCH "));
+                    long netNow = loopbackBytes();
+                    long cpuNow = cpuMs(servers);
+                    if (i >= warmup) {
+                        elapsed[i - warmup] = result[0];
+                        clientCpu += result[1];
+                        serverCpu += cpuNow - cpu;
+                        bytes += net < 0 ? 0 : netNow - net;
+                    }
+                    net = netNow;
+                    cpu = cpuNow;
+                }
+            } finally {
+                // les clients d'agents restent à l'écoute : on les arrête
+                run.kill();
+            }
+
+            Arrays.sort(elapsed);
+            double mean = Arrays.stream(elapsed).average().orElse(0);
+            return String.format(Locale.ROOT,
+                "%s,%s,%s,%s,%d,%d,%d,%d,%.1f,%d,%d,%d,%d,%d",
+                scenario, records, sizeKB, compressibility, reps,
+                percentile(elapsed, 50), percentile(elapsed, 90),
+                percentile(elapsed, 99), mean, elapsed[0], elapsed[reps - 1],
+                loopbackBytes() < 0 ? -1 : bytes / reps,
+                clientCpu / reps, serverCpu / reps);
+        } finally {
+            for (Child c : servers)
+                c.kill();
+        }
+    }
+
+    // ligne BENCH d'une exécution du client : { durée, CPU }
+    private static long[] result(String line) throws IOException {
+        if (line.startsWith("BENCH failed"))
+            throw new IOException("Client run failed: " + line.substring(13));
+        long elapsed = -1, cpu = -1;
+        for (String field : line.substring(6).split(" ")) {
+            String[] kv = field.split("=");
+            if (kv[0].equals("elapsedMs"))
+                elapsed = Long.parseLong(kv[1]);
+            else if (kv[0].equals("cpuMs"))
+                cpu = Long.parseLong(kv[1]);
+        }
+        return new long[] { elapsed, cpu };
+    }
+
+    // rang le plus proche
+    private static long percentile(long[] sorted, int p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static long cpuMs(List<Child> children) {
+        long total = 0;
+        for (Child c : children)
+            total += c.process.info().totalCpuDuration()
+                .map(Duration::toMillis).orElse(0L);
+        return total;
+    }
+
+    // octets reçus sur l'interface loopback depuis le démarrage
+    private static long loopbackBytes() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/net/dev"))) {
+                line = line.trim();
+                if (line.startsWith("lo:"))
+                    return Long.parseLong(line.substring(3).trim().split("\\s+")[0]);
+            }
+        } catch (IOException e) {
+            // pas de /proc : octets non mesurés
+        }
+        return -1;
+    }
+
+    private static Child registry(String cp) throws Exception {
+        String bin = System.getProperty("java.home") + File.separator + "bin";
+        Child registry = new Child(new File(cp), List.of(
+            bin + File.separator + "rmiregistry",
+            "-J-Djava.class.path=" + cp,
+            "-J-Dsun.rmi.registry.registryFilter=CompressingClientSocketFactory;DeflateCodec"));
+
+        // rmiregistry n'affiche rien : on attend que le port réponde
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            try {
+                new Socket("localhost", 1099).close();
+                return registry;
+            } catch (IOException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    registry.kill();
+                    throw e;
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    private static Child java(File dir, String cp, List<String> props, String main)
+        throws IOException {
+        return new Child(dir, command(cp, props, main));
+    }
+
+    private static List<String> command(String cp, List<String> props, String main) {
+        List<String> cmd = new ArrayList<>();
+        cmd.add(System.getProperty("java.home") + File.separator + "bin"
+            + File.separator + "java");
+        cmd.addAll(props);
+        cmd.add("-cp");
+        cmd.add(cp);
+        cmd.add(main);
+        return cmd;
+    }
+
+    private static List<String> split(String s) {
+        return List.of(s.split(","));
+    }
+
+    // processus fils dont la sortie est lue en continu (sinon il bloque
+    // quand le tube est plein)
+    private static class Child {
+        final Process process;
+        final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+
+        Child(File dir, List<String> command) throws IOException {
+            process = new ProcessBuilder(command)
+                .directory(dir)
+                .redirectErrorStream(true)
+                .start();
+
+            Thread reader = new Thread(() -> {
+                try (BufferedReader in = new BufferedReader(
+                        new InputStreamReader(process.getInputStream()))) {
+                    String line;
+                    while ((line = in.readLine()) != null)
+                        lines.add(line);
+                } catch (IOException e) {
+                    // processus arrêté
+                }
+            });
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        // première ligne commençant par prefix ; les autres sont recopiées
+        // sur stderr pour le diagnostic
+        String await(String prefix) throws Exception {
+            long deadline = System.currentTimeMillis() + RUN_TIMEOUT_MS;
+            while (true) {
+                long left = deadline - System.currentTimeMillis();
+                String line = left <= 0 ? null
+                    : lines.poll(Math.min(left, 200), TimeUnit.MILLISECONDS);
+                if (line == null) {
+                    if (left <= 0)
+                        throw new IOException("Timeout waiting for \"" + prefix + "\"");
+                    if (!process.isAlive() && lines.isEmpty())
+                        throw new IOException("Process exited before \"" + prefix + "\"");
+                    continue;
+                }
+                if (line.startsWith(prefix))
+                    return line;
+                if (line.contains("Exception"))
+                    System.err.println("  " + line);
+            }
+        }
+
+        Child ready(String prefix) throws Exception {
+            await(prefix);
+            return this;
+        }
+
+        void kill() throws InterruptedException {
+            process.descendants().forEach(ProcessHandle::destroy);
+            process.destroy();
+            if (!process.waitFor(5, TimeUnit.SECONDS))
+                process.destroyForcibly().waitFor();
+        }
+    }
+}
@@ -8,6 +8,7 @@ public class ClientDocument {
 
     public static void main(String[] args) throws Exception {
 
+        BenchReport.silenceConsole();
         AgentServer origin = new AgentServer(2003);
 
         new Thread(() -> {
@@ -20,10 +21,16 @@ public class ClientDocument {
 
         Thread.sleep(1000);
 
-        CompressionAgent agent = new CompressionAgent();
-        agent.init("CompressionAgent",
-                   new Node("localhost", 2003));
-
-        agent.move(new Node("localhost", 2004));
+        // un agent par exécution, le suivant part quand le précédent est revenu
+        for (int run = 0; run < Configuration.benchRuns; run++) {
+            CompressionAgent agent = new CompressionAgent();
+            agent.init("CompressionAgent",
+                       new Node("localhost", 2003));
+
+            BenchReport.startRun();
+            agent.move(new LogicalNode("document", "localhost", 2004));
+            if (run + 1 < Configuration.benchRuns)
+                BenchReport.awaitRun();
+        }
     }
 }
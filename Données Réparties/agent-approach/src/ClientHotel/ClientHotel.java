@@ -6,6 +6,7 @@ import platform.*;
 public class ClientHotel {
     public static void main(String[] args) throws Exception {
 
+        BenchReport.silenceConsole();
         AgentServer origin = new AgentServer(2000);
 
         new Thread(() -> {
@@ -18,8 +19,17 @@ public class ClientHotel {
 
         Thread.sleep(1000);
 
-        HotelAgent agent = new HotelAgent();
-        agent.init("AgentHotels", new Node("localhost", 2000));
-        agent.move(new Node("localhost", 2000));
+        // un agent par exécution, le suivant part quand le précédent est revenu
+        for (int run = 0; run < Configuration.benchRuns; run++) {
+            HotelAgent agent = new HotelAgent();
+            agent.init("AgentHotels", new Node("localhost", 2000));
+            // préfixe optionnel, ex : Hotel12
+            if (args.length > 0)
+                agent.setPrefix(args[0]);
+            BenchReport.startRun();
+            agent.move(new Node("localhost", 2000));
+            if (run + 1 < Configuration.benchRuns)
+                BenchReport.awaitRun();
+        }
     }
 }
@@ -0,0 +1,129 @@
+// Cluster/LocalCluster.java
+package Cluster;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import ClientDocument.ClientDocument;
+import ClientHotel.ClientHotel;
+import DirectoryServer.DirectoryServer;
+import DocumentServer.DocumentServer;
+import HotelServer.HotelServer;
+import platform.AgentSender;
+import platform.AgentServer;
+import platform.LinkProfile;
+import platform.StaticLinkEmulator;
+
+/**
+ * Lance tous les noeuds d'une expérience sur une seule machine :
+ * les serveurs d'agents (hôtels 2001, annuaire 2002, documents 2004, plus N
+ * noeuds vides à partir de 2100) dans cette JVM, et si demandé les serveurs
+ * RMI dans des processus fils. Les liens entre noeuds d'agents passent par
+ * un émulateur de latence / gigue / débit, pour que les mesures reflètent
+ * un réseau étendu et non la boucle locale.
+ *
+ * Options :
+ *   --link lat,gigue,Ko/s         profil par défaut de tous les liens
+ *   --link-to port=lat,gigue,Ko/s profil de tous les liens vers ce port
+ *   --nodes N                     N noeuds supplémentaires (2100, 2101...)
+ *   --rmi dir                     lance rmiregistry et les serveurs RMI de dir
+ *                                 (dossier rmi-approach, classes compilées)
+ *   --run hotel [préfixe] | document   lance aussi le client
+ *
+ * Exemple : java -cp bin Cluster.LocalCluster --link 40,5,2000 --run hotel
+ *
+ * L'émulation ne porte que sur le transport des agents : le trafic RMI des
+ * processus fils passe sans émulation.
+ */
+public class LocalCluster {
+
+    private static final List<Process> children = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        StaticLinkEmulator emulator = null;
+        List<String[]> perTarget = new ArrayList<>();
+        int nodes = 0;
+        String rmiDir = null;
+        String run = null;
+        String prefix = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--link" -> emulator =
+                    new StaticLinkEmulator(LinkProfile.parse(args[++i]));
+                case "--link-to" -> perTarget.add(args[++i].split("="));
+                case "--nodes" -> nodes = Integer.parseInt(args[++i]);
+                case "--rmi" -> rmiDir = args[++i];
+                case "--run" -> {
+                    run = args[++i];
+                    if (i + 1 < args.length && !args[i + 1].startsWith("--"))
+                        prefix = args[++i];
+                }
+                default -> throw new IllegalArgumentException(args[i]);
+            }
+        }
+
+        if (emulator == null && !perTarget.isEmpty())
+            emulator = new StaticLinkEmulator(null);
+        for (String[] t : perTarget)
+            emulator.set(-1, Integer.parseInt(t[0]), LinkProfile.parse(t[1]));
+        AgentSender.setLinkEmulator(emulator);
+
+        Runtime.getRuntime().addShutdownHook(
+            new Thread(() -> children.forEach(Process::destroy)));
+
+        if (rmiDir != null)
+            startRmi(new File(rmiDir));
+
+        background(() -> HotelServer.main(new String[0]));
+        background(() -> DirectoryServer.main(new String[0]));
+        background(() -> DocumentServer.main(new String[0]));
+        for (int i = 0; i < nodes; i++) {
+            AgentServer extra = new AgentServer(2100 + i);
+            background(extra::start);
+        }
+
+        Thread.sleep(1000);
+
+        if ("hotel".equals(run))
+            ClientHotel.main(prefix == null ? new String[0] : new String[] { prefix });
+        else if ("document".equals(run))
+            ClientDocument.main(new String[0]);
+    }
+
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    private static void background(Task task) {
+        new Thread(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }).start();
+    }
+
+    private static void startRmi(File dir) throws Exception {
+        File names = new File(dir, "ExampleMessagesNumberReduction");
+        File files = new File(dir, "ExampleServerExtension");
+        String cp = names.getAbsolutePath() + File.pathSeparator
+            + files.getAbsolutePath();
+
+        child(dir, "rmiregistry", "-J-Djava.class.path=" + cp);
+        Thread.sleep(1000);
+        child(names, "java", "-cp", ".", "ServerAImpl");
+        child(names, "java", "-cp", ".", "ServerBImpl");
+        child(files, "java", "-cp", ".", "FileServer");
+    }
+
+    private static void child(File dir, String... command) throws Exception {
+        Process p = new ProcessBuilder(command)
+            .directory(dir)
+            .inheritIO()
+            .start();
+        children.add(p);
+    }
+}
@@ -3,6 +3,7 @@ package DirectoryServer;
 
 import platform.AgentServer;
 import platform.Configuration;
+import platform.KeyIndex;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -19,6 +20,7 @@ public class DirectoryServer {
         }
 
         server.bind("directory",map);
+        server.bind("directoryIndex", KeyIndex.of(map));
 
         server.start();
     }
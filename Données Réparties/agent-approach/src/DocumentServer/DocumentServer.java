@@ -15,10 +15,23 @@ public class DocumentServer {
         
         int xbyte = Configuration.sizeOfFileKB * 1024;
         byte[] document = new byte[xbyte];
-        new Random().nextBytes(document);
+        if (Configuration.compressibility == null)
+            new Random().nextBytes(document);
+        else
+            fill(document, Double.parseDouble(Configuration.compressibility));
         
 
         server.bind("document", document);
         server.start();
     }
+
+    // dans chaque Ko, une part "compressible" de 'A' répétés puis des octets
+    // aléatoires (graine fixe : même document d'une exécution à l'autre)
+    private static void fill(byte[] document, double compressible) {
+        Random random = new Random(42);
+        int repeated = (int) Math.round(compressible * 1024);
+        for (int i = 0; i < document.length; i++)
+            document[i] = (i % 1024) < repeated
+                ? (byte) 'A' : (byte) random.nextInt(256);
+    }
 }
@@ -6,6 +6,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import platform.AgentServer;
+import platform.FrontCodedList;
+import platform.KeyIndex;
 import platform.Configuration;
 
 public class HotelServer {
@@ -16,8 +18,10 @@ public class HotelServer {
             list.add("Hotel"+i);
         }
 
-        // Objet local simple
-        server.bind("hotels",list);
+        // Objet local simple, sous forme compacte : les agents l'emportent avec eux
+        server.bind("hotels", FrontCodedList.of(list));
+        // Index trié pour les recherches par préfixe ou intervalle
+        server.bind("hotelIndex", KeyIndex.of(list));
 
         server.start();
     }
@@ -4,7 +4,6 @@ package agents;
 import platform.*;
 
 import java.io.*;
-import java.net.Socket;
 import java.util.Hashtable;
 import java.util.Map;
 import java.util.HashMap;
@@ -20,6 +19,8 @@ public class CompressionAgent implements Agent {
     private int step = 0;
     private long startTime = -1;
     private int originalSize = -1;
+    // raison de l'échec d'une migration, affichée au retour chez le client
+    private String failure;
 
 
 
@@ -63,6 +64,12 @@ public class CompressionAgent implements Agent {
             return;
         }
 
+        if (step == 1 && failure != null) {
+            System.out.println("Migration failed: " + failure);
+            BenchReport.failed(failure);
+            return;
+        }
+
         if (step == 1) {
             // Retour client
             long endTime = System.currentTimeMillis();
@@ -80,6 +87,7 @@ public class CompressionAgent implements Agent {
 
             System.out.println("\nThe Agent test took "
                 + (endTime - startTime) + " ms");
+            BenchReport.report(endTime - startTime);
         }
     }
 
@@ -100,6 +108,9 @@ public class CompressionAgent implements Agent {
 
     @Override
      public void move(Node target) throws MoveException {
+        // le premier départ a lieu sur le client : début de la mesure
+        if (startTime < 0)
+            startTime = System.currentTimeMillis();
         try{
             // Sérialisation de l’agent
             ByteArrayOutputStream bos = new ByteArrayOutputStream();
@@ -118,15 +129,9 @@ public class CompressionAgent implements Agent {
             msg.classes = classes;
             msg.mainClass = this.getClass().getName();
 
-            // Envoi TCP
-            Socket socket = new Socket(target.host, target.port);
-            ObjectOutputStream out =
-                new ObjectOutputStream(socket.getOutputStream());
-
-            out.writeObject(msg);
-            out.flush();
-            socket.close();
-            
+            // Envoi asynchrone : l'agent est mis dans la file de la destination
+            // et reprend ici par moveFailed() si elle est injoignable
+            AgentSender.migrate(this, target, msg);
 
         } catch(Exception e) {
             throw new MoveException(e.getMessage());
@@ -138,6 +143,19 @@ public class CompressionAgent implements Agent {
         move(origin);
     }
 
+    @Override
+    public void moveFailed(Node target, MoveException cause) throws MoveException {
+        System.err.println("Unable to move to " + target + ": " + cause.getMessage());
+        if (step == 1) {
+            // c'est le retour qui a échoué : l'agent ne peut plus rien rapporter
+            System.err.println("Agent " + name + " cannot reach its origin, giving up");
+            return;
+        }
+        failure = cause.getMessage();
+        step = 1;
+        back();
+    }
+
     private void collectClass(Class<?> c,
                               Map<String, byte[]> map)
         throws IOException {
@@ -1,7 +1,6 @@
 package agents;
 
 import java.io.*;
-import java.net.Socket;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
@@ -9,8 +8,14 @@ import java.util.Map;
 
 import platform.Agent;
 import platform.AgentMessage;
+import platform.AgentSender;
+import platform.BenchReport;
+import platform.FrontCodedList;
+import platform.KeyIndex;
+import platform.LogicalNode;
 import platform.MoveException;
 import platform.Node;
+import platform.SummaryCache;
 
 public class HotelAgent implements Agent {
 
@@ -21,6 +26,10 @@ public class HotelAgent implements Agent {
     private List<String> hotelNames;
     private Map<String,String> phones = new HashMap<>();
     private long startTime = -1;
+    // si non null, seuls les hôtels dont le nom commence par ce préfixe sont récupérés
+    private String prefix;
+    // raison de l'échec d'une migration, affichée au retour à l'origine
+    private String failure;
 
     @Override
     public void init(String name, Node origin) {
@@ -28,6 +37,10 @@ public class HotelAgent implements Agent {
         this.origin = origin;
     }
 
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
     @Override
     public void setNameServer(Hashtable<String, Object> ns) {
         this.nameServer = ns;
@@ -49,15 +62,29 @@ public class HotelAgent implements Agent {
             System.out.println("Liste initiale d'hotels : " + hotelNames);
             System.out.println("Moving to Hotel server");
             step = 1;
-            move(new Node("localhost", 2001));
+            // réplique la moins chargée des noeuds hébergeant "hotels"
+            move(new LogicalNode("hotels", "localhost", 2001));
             return;
         }
         else if (step == 1) {
             // Serveur 1 : hotels
-            hotelNames = (List<String>) nameServer.get("hotels");
+            if (prefix == null) {
+                hotelNames = (List<String>) nameServer.get("hotels");
+            } else {
+                KeyIndex<?> index = (KeyIndex<?>) nameServer.get("hotelIndex");
+                hotelNames = FrontCodedList.of(index.prefix(prefix));
+            }
+            // inutile d'aller à l'annuaire s'il ne connaît aucun de ces hôtels
+            Node directory = new LogicalNode("directory", "localhost", 2002).resolve();
+            if (!SummaryCache.mightHoldAny(directory, hotelNames)) {
+                System.out.println("Directory server cannot answer, going to origin node");
+                step = -1;
+                back();
+                return;
+            }
             System.out.println("Moving to Directory server to fill numbers");
             step = 2;
-            move(new Node("localhost", 2002));
+            move(directory);
             return;
         }
 
@@ -77,6 +104,11 @@ public class HotelAgent implements Agent {
 
         else {
             // Retour origine
+            if (failure != null) {
+                System.out.println("Migration failed: " + failure);
+                BenchReport.failed(failure);
+                return;
+            }
             System.out.println("Liste d'hotels récupérée dans les deux seveurs");
             phones.forEach((h,p) ->
                 System.out.println(h + " → " + p));
@@ -85,6 +117,7 @@ public class HotelAgent implements Agent {
 
             System.out.println("\nThe Agent test took "
                 + (endTime - startTime) + " ms");
+            BenchReport.report(endTime - startTime);
 
     }
 
@@ -107,15 +140,9 @@ public class HotelAgent implements Agent {
             msg.classes = classes;
             msg.mainClass = this.getClass().getName();
 
-            // Envoi TCP
-            Socket socket = new Socket(target.host, target.port);
-            ObjectOutputStream out =
-                new ObjectOutputStream(socket.getOutputStream());
-
-            out.writeObject(msg);
-            out.flush();
-            socket.close();
-            
+            // Envoi asynchrone : l'agent est mis dans la file de la destination
+            // et reprend ici par moveFailed() si elle est injoignable
+            AgentSender.migrate(this, target, msg);
 
         } catch(Exception e) {
             throw new MoveException(e.getMessage());
@@ -126,6 +153,19 @@ public class HotelAgent implements Agent {
         move(origin);
     }
 
+    @Override
+    public void moveFailed(Node target, MoveException cause) throws MoveException {
+        System.err.println("Unable to move to " + target + ": " + cause.getMessage());
+        if (step == -1) {
+            // c'est le retour qui a échoué : l'agent ne peut plus rien rapporter
+            System.err.println("Agent " + name + " cannot reach its origin, giving up");
+            return;
+        }
+        failure = cause.getMessage();
+        step = -1;
+        back();
+    }
+
     // Envoie du code de l'agent et de toutes les classes dont il dépend(HotelAgent, Interface Agent, classe Object)
     private void collectClass(Class<?> c,
                           Map<String, byte[]> map)
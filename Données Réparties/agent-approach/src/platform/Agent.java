@@ -11,6 +11,8 @@ public interface Agent extends Serializable {
     void move(Node target) throws MoveException;
     void back() throws MoveException;
     void main() throws MoveException;
+    // la migration vers target a échoué : l'agent reprend sur le noeud qu'il quittait
+    void moveFailed(Node target, MoveException cause) throws MoveException;
 }
 
 
@@ -0,0 +1,11 @@
+// platform/AgentBatch.java
+package platform;
+
+import java.io.Serializable;
+import java.util.List;
+
+// trame regroupant plusieurs agents (et messages de boîte aux lettres) à destination du même noeud
+public class AgentBatch implements Serializable {
+    public List<AgentMessage> messages;
+    public List<MailMessage> mail;
+}
@@ -8,4 +8,18 @@ public class AgentMessage implements Serializable {
     public String mainClass;
     public Map<String, byte[]> classes;
     public byte[] agentState;
+    // l'agent se déclare volumineux : il part sur la voie "bulk" quelle que soit sa taille
+    public boolean bulk;
+    // trace de bout en bout : identifiant commun à tous les sauts et numéro du saut
+    public String traceId;
+    public int hop;
+
+    // taille approximative de la trame (état + bytecode)
+    public int size() {
+        int size = agentState == null ? 0 : agentState.length;
+        if (classes != null)
+            for (byte[] code : classes.values())
+                size += code.length;
+        return size;
+    }
 }
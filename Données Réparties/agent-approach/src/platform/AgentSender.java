@@ -0,0 +1,328 @@
+// platform/AgentSender.java
+package platform;
+
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * File d'envoi asynchrone des agents.
+ * Un agent qui migre est déposé dans la file de sa destination et move()
+ * rend la main tout de suite ; un thread d'envoi par destination vide la
+ * file et regroupe les agents en attente dans une seule trame (AgentBatch).
+ *
+ * Chaque destination a deux voies indépendantes (file, thread et connexion
+ * séparés) : une pour les petits agents et une pour les agents volumineux,
+ * afin qu'un petit agent n'attende pas derrière le transfert d'un gros.
+ * Les agents volumineux ne sont pas regroupés.
+ *
+ * Un envoi vers une LogicalNode qui échoue est redirigé vers la réplique
+ * suivante de la ressource ; l'échec n'est signalé qu'une fois toutes les
+ * répliques connues essayées.
+ *
+ * Chaque envoi rend un CompletableFuture, terminé quand la trame est
+ * écrite, ou en erreur (MoveException) si la destination est injoignable.
+ * migrate() s'en sert pour rendre la main à l'agent sur le noeud qu'il
+ * quittait plutôt que de le perdre.
+ */
+public class AgentSender {
+
+    // nombre maximum d'agents regroupés dans une même trame
+    public static final int MAX_BATCH = 64;
+
+    // agent (ou message de boîte aux lettres) en attente d'envoi,
+    // avec de quoi tracer son passage dans la file
+    private static class Outbound {
+        AgentMessage msg;
+        MailMessage mail;
+        String from;
+        long enqueuedAt;
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        // destination demandée (éventuellement une LogicalNode), voie et
+        // noeuds déjà essayés, pour rediriger l'envoi en cas d'échec
+        Node requested;
+        boolean bulk;
+        Set<String> tried = new HashSet<>();
+
+        int size() {
+            return msg != null ? msg.size() : mail.payload.length;
+        }
+    }
+
+    private static final Map<String, BlockingQueue<Outbound>> queues =
+        new HashMap<>();
+
+    private static volatile LinkEmulator emulator;
+
+    // émulation de latence / débit sur les liens sortants (null pour la désactiver)
+    public static void setLinkEmulator(LinkEmulator e) {
+        emulator = e;
+    }
+
+    public static CompletableFuture<Void> send(Node target, AgentMessage msg) {
+        // le message hérite de la trace de l'agent qui s'exécute sur ce thread
+        Outbound o = new Outbound();
+        o.requested = target;
+        if (target instanceof LogicalNode logical)
+            target = logical.resolve();
+
+        Tracer.Context ctx = Tracer.current();
+        if (ctx == null) {
+            msg.traceId = Tracer.newTraceId();
+            msg.hop = 1;
+            o.from = "origin";
+        } else {
+            msg.traceId = ctx.traceId;
+            msg.hop = ctx.hop + 1;
+            o.from = ctx.node;
+        }
+        o.msg = msg;
+        o.enqueuedAt = Tracer.nowNanos();
+
+        o.bulk = msg.bulk
+            || msg.size() > Configuration.bulkThresholdBytes;
+        queueFor(o.from, target, o.bulk).add(o);
+        return o.done;
+    }
+
+    // envoi d'un agent qui migre ; si l'envoi échoue, l'agent, resté en
+    // mémoire sur ce noeud, reprend la main par moveFailed() sur un nouveau
+    // thread, dans la trace du saut manqué
+    public static void migrate(Agent agent, Node target, AgentMessage msg) {
+        Tracer.Context ctx = Tracer.current();
+        send(target, msg).whenComplete((ok, error) -> {
+            if (error == null)
+                return;
+            MoveException cause = error instanceof MoveException m
+                ? m : new MoveException(String.valueOf(error));
+            new Thread(() -> {
+                if (ctx != null)
+                    Tracer.enter(ctx);
+                try {
+                    agent.moveFailed(target, cause);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                } finally {
+                    Tracer.exit();
+                }
+            }, "agent-resume").start();
+        });
+    }
+
+    // les messages des boîtes aux lettres empruntent la voie des petits agents
+    public static CompletableFuture<Void> send(Node target, MailMessage mail) {
+        Outbound o = new Outbound();
+        o.requested = target;
+        if (target instanceof LogicalNode logical)
+            target = logical.resolve();
+        Tracer.Context ctx = Tracer.current();
+        o.from = ctx == null ? "origin" : ctx.node;
+        o.mail = mail;
+        o.enqueuedAt = Tracer.nowNanos();
+        queueFor(o.from, target, false).add(o);
+        return o.done;
+    }
+
+    // nombre d'envois en attente émis par le noeud from ("hôte:port")
+    public static synchronized int pending(String from) {
+        int n = 0;
+        for (Map.Entry<String, BlockingQueue<Outbound>> e : queues.entrySet())
+            if (e.getKey().startsWith(from + "->"))
+                n += e.getValue().size();
+        return n;
+    }
+
+    // une file par lien (émetteur, destination) : plusieurs noeuds peuvent
+    // partager la JVM et chaque lien peut être émulé différemment
+    private static synchronized BlockingQueue<Outbound> queueFor(
+            String from, Node target, boolean bulk) {
+
+        String key = from + "->" + target + (bulk ? "/bulk" : "/small");
+        BlockingQueue<Outbound> queue = queues.get(key);
+
+        if (queue == null) {
+            queue = new LinkedBlockingQueue<>();
+            queues.put(key, queue);
+
+            BlockingQueue<Outbound> q = queue;
+            int maxBatch = bulk ? 1 : MAX_BATCH;
+            Thread t = new Thread(() -> drain(from, target, q, maxBatch),
+                                  "agent-sender-" + key);
+            t.start();
+        }
+        return queue;
+    }
+
+    // trame prête à partir sur un lien émulé : elle attend sa latence dans la
+    // DelayQueue de la voie, si bien que plusieurs trames sont en vol à la
+    // fois comme sur un vrai lien (seul le débit est partagé)
+    private static class Frame implements Delayed {
+        final List<Outbound> batch;
+        final long dequeuedAt;
+        final long deliverAt; // System.nanoTime()
+
+        Frame(List<Outbound> batch, long dequeuedAt, long deliverAt) {
+            this.batch = batch;
+            this.dequeuedAt = dequeuedAt;
+            this.deliverAt = deliverAt;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deliverAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deliverAt, ((Frame) other).deliverAt);
+        }
+    }
+
+    private static void drain(String from, Node target,
+                              BlockingQueue<Outbound> queue, int maxBatch) {
+        DelayQueue<Frame> wire = null;
+        long lastDeliverAt = 0;
+
+        while (true) {
+            List<Outbound> batch = new ArrayList<>();
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            // une trame de la voie "small" reste elle-même petite
+            int bytes = batch.get(0).size();
+            while (batch.size() < maxBatch
+                   && bytes < Configuration.bulkThresholdBytes) {
+                Outbound next = queue.poll();
+                if (next == null)
+                    break;
+                batch.add(next);
+                bytes += next.size();
+            }
+
+            long dequeuedAt = Tracer.nowNanos();
+            LinkProfile link = link(from, target);
+            if (link == null) {
+                transmit(from, target, batch, dequeuedAt);
+                continue;
+            }
+
+            if (wire == null) {
+                DelayQueue<Frame> w = new DelayQueue<>();
+                Thread t = new Thread(() -> deliver(from, target, w),
+                                      "agent-link-" + from + "->" + target);
+                t.setDaemon(true);
+                t.start();
+                wire = w;
+            }
+            // la gigue ne double pas une trame partie avant (ordre TCP)
+            long deliverAt = Math.max(lastDeliverAt,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(link.sampleLatencyMs()));
+            lastDeliverAt = deliverAt;
+            wire.add(new Frame(batch, dequeuedAt, deliverAt));
+        }
+    }
+
+    // écrit les trames d'un lien émulé à l'échéance de leur latence
+    private static void deliver(String from, Node target, DelayQueue<Frame> wire) {
+        while (true) {
+            Frame f;
+            try {
+                f = wire.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            transmit(from, target, f.batch, f.dequeuedAt);
+        }
+    }
+
+    private static void transmit(String from, Node target,
+                                 List<Outbound> batch, long dequeuedAt) {
+        try {
+            write(from, target, batch);
+            for (Outbound o : batch)
+                o.done.complete(null);
+        } catch (Exception e) {
+            System.err.println("Unable to send " + batch.size()
+                + " frame(s) to " + target + ": " + e);
+            ReplicaRouter.suspect(target);
+            MoveException failure =
+                new MoveException("Unable to reach " + target + ": " + e);
+            for (Outbound o : batch)
+                reroute(o, target, failure);
+        }
+        long sentAt = Tracer.nowNanos();
+
+        for (Outbound o : batch) {
+            AgentMessage m = o.msg;
+            if (m == null)
+                continue;
+            Tracer.span(o.from, m.traceId, m.hop - 1, "queue",
+                        m.mainClass, o.enqueuedAt, dequeuedAt);
+            Tracer.span(o.from, m.traceId, m.hop - 1, "migrate-out",
+                        m.mainClass, dequeuedAt, sentAt);
+        }
+    }
+
+    // envoi suivant vers une autre réplique de la ressource demandée, ou
+    // échec si la destination était une adresse ou qu'il n'en reste aucune
+    private static void reroute(Outbound o, Node failed, MoveException failure) {
+        o.tried.add(failed.toString());
+        Node next = o.requested instanceof LogicalNode logical
+            ? logical.resolve(o.tried) : null;
+        if (next == null) {
+            o.done.completeExceptionally(failure);
+            return;
+        }
+        System.err.println("Rerouting to " + next);
+        queueFor(o.from, next, o.bulk).add(o);
+    }
+
+    private static LinkProfile link(String from, Node target) {
+        LinkEmulator e = emulator;
+        return e == null ? null : e.profile(from, target);
+    }
+
+    private static void write(String from, Node target, List<Outbound> batch)
+        throws Exception {
+
+        AgentBatch frame = new AgentBatch();
+        frame.messages = new ArrayList<>();
+        frame.mail = new ArrayList<>();
+        for (Outbound o : batch) {
+            if (o.msg != null)
+                frame.messages.add(o.msg);
+            else
+                frame.mail.add(o.mail);
+        }
+
+        // la latence est déjà passée (DelayQueue), reste le débit
+        LinkProfile link = link(from, target);
+
+        // Envoi TCP
+        try (Socket socket = new Socket(target.host, target.port)) {
+            OutputStream os = socket.getOutputStream();
+            if (link != null && link.bytesPerSecond > 0)
+                os = new ThrottledOutputStream(os, link.bytesPerSecond);
+
+            ObjectOutputStream out = new ObjectOutputStream(os);
+
+            out.writeObject(frame);
+            out.flush();
+        }
+    }
+}
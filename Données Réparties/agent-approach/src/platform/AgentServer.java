@@ -2,29 +2,84 @@
 package platform;
 
 import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
 import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class AgentServer {
 
+    private final String host;
     private final int port;
     private final Hashtable<String,Object> nameServer =
         new Hashtable<>();
+    // résumés des clés de chaque ressource, publiés aux autres noeuds
+    private final Hashtable<String,BloomFilter> summaries =
+        new Hashtable<>();
+    // version des résumés, augmentée à chaque bind et annoncée dans les
+    // LoadReport ; elle part de l'horloge pour qu'un noeud redémarré ne
+    // réutilise pas les versions de sa vie précédente
+    private final AtomicLong summaryVersion =
+        new AtomicLong(System.currentTimeMillis());
+    private final PostOffice postOffice = new PostOffice();
+    private final AtomicInteger activeAgents = new AtomicInteger();
+    // noeuds auxquels la charge est diffusée : les amorces, plus les noeuds
+    // appris par les LoadReport reçus
+    private final Map<String,Node> members = new ConcurrentHashMap<>();
 
     public AgentServer(int port) {
+        this(Configuration.host, port);
+    }
+
+    // host : adresse annoncée aux autres noeuds (null : nom de la machine)
+    public AgentServer(String host, int port) {
+        this.host = host != null ? host : localHostName();
         this.port = port;
+        // boîtes aux lettres des agents présents sur ce noeud
+        nameServer.put(PostOffice.NAME, postOffice);
+        for (Node seed : Configuration.seeds)
+            members.put(seed.toString(), seed);
     }
 
     public void bind(String name, Object obj) {
         nameServer.put(name, obj);
+
+        // le résumé est recalculé à chaque (re)bind
+        Collection<?> keys = null;
+        if (obj instanceof Map<?,?> map)
+            keys = map.keySet();
+        else if (obj instanceof Collection<?> c)
+            keys = c;
+        else if (obj instanceof KeyIndex<?> index)
+            keys = index.keys();
+
+        if (keys != null)
+            summaries.put(name, BloomFilter.of(keys));
+        else
+            summaries.remove(name);
+        // après la mise à jour : une version ne désigne jamais un résumé plus ancien
+        summaryVersion.incrementAndGet();
     }
 
     public void start() throws Exception {
         ServerSocket ss = new ServerSocket(port);
         System.out.println("Server listening on " + port);
 
+        Thread gossip = new Thread(this::gossip, "gossip-" + port);
+        gossip.setDaemon(true);
+        gossip.start();
+
         while (true) {
             Socket s = ss.accept();
             new Thread(() -> handle(s)).start();
@@ -32,12 +87,54 @@ public class AgentServer {
     }
 
     private void handle(Socket s) {
+        long receivedAt = Tracer.nowNanos();
         try (ObjectInputStream ois =
                  new ObjectInputStream(s.getInputStream())) {
 
-            AgentMessage msg =
-                (AgentMessage) ois.readObject();
+            Object frame = ois.readObject();
+
+            if (frame instanceof LoadReport report) {
+                ReplicaRouter.update(report);
+                join(report.node);
+                if (report.members != null)
+                    for (Node n : report.members)
+                        join(n);
+            } else if (frame instanceof SummaryRequest) {
+                // version lue avant la copie : au pire les résumés sont plus
+                // récents que la version, ce qui provoque un rechargement de trop
+                SummaryReply reply = new SummaryReply();
+                reply.version = summaryVersion.get();
+                reply.filters = new Hashtable<>(summaries);
+                ObjectOutputStream out =
+                    new ObjectOutputStream(s.getOutputStream());
+                out.writeObject(reply);
+                out.flush();
+            } else if (frame instanceof AgentBatch batch) {
+                // chaque agent de la trame s'exécute sur son propre thread
+                for (AgentMessage msg : batch.messages)
+                    new Thread(() -> run(msg, receivedAt)).start();
+                if (batch.mail != null)
+                    for (MailMessage mail : batch.mail) {
+                        // un message illisible ne fait pas perdre les suivants
+                        try {
+                            postOffice.deliver(mail);
+                        } catch (Exception e) {
+                            System.err.println("Undeliverable mail for "
+                                + mail.to + ": " + e);
+                        }
+                    }
+            } else {
+                run((AgentMessage) frame, receivedAt);
+            }
 
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void run(AgentMessage msg, long receivedAt) {
+        String node = nodeName();
+        try {
             AgentClassLoader loader =
                 new AgentClassLoader(msg.classes);
 
@@ -55,10 +152,106 @@ public class AgentServer {
 
             agent = (Agent) stateIn.readObject();
             agent.setNameServer(nameServer);
-            agent.main();
+            long loadedAt = Tracer.nowNanos();
+            Tracer.span(node, msg.traceId, msg.hop, "load",
+                        msg.mainClass, receivedAt, loadedAt);
+
+            Tracer.enter(new Tracer.Context(msg.traceId, msg.hop, node));
+            activeAgents.incrementAndGet();
+            try {
+                agent.main();
+            } finally {
+                activeAgents.decrementAndGet();
+                Tracer.exit();
+                Tracer.span(node, msg.traceId, msg.hop, "execute",
+                            msg.mainClass, loadedAt, Tracer.nowNanos());
+            }
 
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
+
+    private void join(Node node) {
+        if (!isSelf(node))
+            members.putIfAbsent(node.toString(), node);
+    }
+
+    // diffuse périodiquement la charge de ce noeud aux membres connus ; un
+    // nouveau noeud n'a besoin que d'une amorce joignable pour rejoindre
+    // les autres
+    private void gossip() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        Node self = new Node(host, port);
+
+        while (true) {
+            LoadReport report = new LoadReport();
+            report.node = self;
+            report.resources = new HashSet<>(nameServer.keySet());
+            report.resources.remove(PostOffice.NAME);
+            report.queueDepth = AgentSender.pending(nodeName());
+            report.activeAgents = activeAgents.get();
+            report.summaryVersion = summaryVersion.get();
+            report.cpu = Math.max(0, os.getSystemLoadAverage())
+                / os.getAvailableProcessors();
+            report.timestamp = System.currentTimeMillis();
+            report.members = new ArrayList<>(members.values());
+
+            ReplicaRouter.update(report);
+            for (Node peer : report.members) {
+                if (isSelf(peer))
+                    continue;
+                try (Socket socket = new Socket(peer.host, peer.port)) {
+                    ObjectOutputStream out =
+                        new ObjectOutputStream(socket.getOutputStream());
+                    out.writeObject(report);
+                    out.flush();
+                } catch (IOException e) {
+                    // noeud absent : une amorce est retentée à la prochaine
+                    // période, un autre membre est oublié jusqu'à son retour
+                    if (!isSeed(peer))
+                        members.remove(peer.toString());
+                }
+            }
+
+            try {
+                Thread.sleep(Configuration.gossipPeriodMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private String nodeName() {
+        return host + ":" + port;
+    }
+
+    // même port, et adresse annoncée ou locale à la machine
+    private boolean isSelf(Node node) {
+        if (node.port != port)
+            return false;
+        if (node.host.equals(host))
+            return true;
+        try {
+            InetAddress a = InetAddress.getByName(node.host);
+            return a.isLoopbackAddress() || NetworkInterface.getByInetAddress(a) != null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static boolean isSeed(Node node) {
+        for (Node seed : Configuration.seeds)
+            if (seed.toString().equals(node.toString()))
+                return true;
+        return false;
+    }
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "localhost";
+        }
+    }
 }
@@ -0,0 +1,64 @@
+// platform/BenchReport.java
+package platform;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mode banc d'essai (-Dbench=true, voir Bench.Benchmark).
+ * Le client coupe sa console pour que les milliers d'affichages ne comptent
+ * pas dans les mesures, et l'agent revenu à l'origine écrit une seule ligne
+ * "BENCH elapsedMs=... cpuMs=..." sur stderr, cpuMs étant le CPU consommé par
+ * le processus client depuis startRun().
+ *
+ * Avec -Dbench.runs=N le client relance l'agent N fois : awaitRun() attend
+ * le retour du précédent (ou son échec, ligne "BENCH failed ...").
+ */
+public class BenchReport {
+
+    // délai maximum d'un aller-retour d'agent
+    private static final long RUN_TIMEOUT_MS = 120_000;
+
+    private static final Semaphore finished = new Semaphore(0);
+    private static volatile long runCpuMs;
+
+    public static void startRun() {
+        runCpuMs = processCpuMs();
+    }
+
+    public static void awaitRun() throws IOException, InterruptedException {
+        if (!finished.tryAcquire(RUN_TIMEOUT_MS, TimeUnit.MILLISECONDS))
+            throw new IOException("Agent did not return within " + RUN_TIMEOUT_MS + " ms");
+    }
+
+    public static void silenceConsole() {
+        if (Configuration.bench)
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    public static void report(long elapsedMs) {
+        if (Configuration.bench)
+            System.err.println("BENCH elapsedMs=" + elapsedMs
+                + " cpuMs=" + (processCpuMs() - runCpuMs));
+        finished.release();
+    }
+
+    // l'agent est revenu sans résultat
+    public static void failed(String reason) {
+        if (Configuration.bench)
+            System.err.println("BENCH failed " + reason);
+        finished.release();
+    }
+
+    // temps CPU consommé par la JVM depuis son lancement
+    public static long processCpuMs() {
+        if (ManagementFactory.getOperatingSystemMXBean()
+                instanceof com.sun.management.OperatingSystemMXBean os)
+            return os.getProcessCpuTime() / 1_000_000;
+        return -1;
+    }
+}
@@ -0,0 +1,72 @@
+// platform/BloomFilter.java
+package platform;
+
+import java.io.Serializable;
+import java.util.Collection;
+
+/**
+ * Résumé compact d'un ensemble de clés.
+ * mightContain() peut se tromper en répondant vrai (faux positif, ~1% par
+ * défaut) mais jamais en répondant faux : si la réponse est non, la clé
+ * n'est certainement pas sur le serveur.
+ */
+public class BloomFilter implements Serializable {
+
+    public static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final long[] bits;
+    private final int numBits;
+    private final int numHashes;
+
+    public BloomFilter(int expectedKeys, double fpp) {
+        int n = Math.max(1, expectedKeys);
+        double ln2 = Math.log(2);
+        numBits = (int) Math.max(64, Math.ceil(-n * Math.log(fpp) / (ln2 * ln2)));
+        numHashes = (int) Math.max(1, Math.round((double) numBits / n * ln2));
+        bits = new long[(numBits + 63) / 64];
+    }
+
+    // les clés qui ne sont pas des String sont résumées par String.valueOf
+    public static BloomFilter of(Collection<?> keys) {
+        BloomFilter f = new BloomFilter(keys.size(), FALSE_POSITIVE_RATE);
+        for (Object k : keys)
+            f.add(String.valueOf(k));
+        return f;
+    }
+
+    public void add(String key) {
+        long h = hash(key);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        for (int i = 0; i < numHashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, numBits);
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain(String key) {
+        long h = hash(key);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        for (int i = 0; i < numHashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, numBits);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    // FNV-1a 64 bits suivi d'un mélange final (les hashCode de "Hotel1",
+    // "Hotel2"... sont trop proches pour être utilisés tels quels)
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -1,6 +1,39 @@
 package platform;
 
+import java.util.List;
+
 public class Configuration {
-    public static final int recordnum = 20000;
-    public static final int sizeOfFileKB = 10000;
+    // tailles des données, modifiables par le banc d'essai (Bench.Benchmark)
+    public static final int recordnum = Integer.getInteger("recordnum", 20000);
+    public static final int sizeOfFileKB = Integer.getInteger("sizeKB", 10000);
+    // part compressible du document (-Dcompressibility=0..1) ; sans la
+    // propriété le document est entièrement aléatoire
+    public static final String compressibility = System.getProperty("compressibility");
+    // mode banc d'essai : pas d'affichage console, une ligne BENCH sur stderr
+    public static final boolean bench = Boolean.getBoolean("bench");
+    // nombre d'exécutions du test dans le même processus client
+    // (-Dbench.runs=N), les premières servant d'échauffement au banc d'essai
+    public static final int benchRuns = Integer.getInteger("bench.runs", 1);
+    // durée de validité d'un résumé de clés mis en cache
+    public static final long summaryTtlMs = 30000;
+    // délais de connexion et de lecture pour obtenir les résumés d'un noeud
+    public static final int summaryTimeoutMs = 2000;
+    // au-delà de cette taille un agent migre sur la voie "bulk"
+    public static final int bulkThresholdBytes = 256 * 1024;
+    // écriture des spans dans trace-<noeud>.jsonl (-Dagent.trace=true)
+    public static final boolean tracing = Boolean.getBoolean("agent.trace");
+    // période de diffusion des LoadReport entre noeuds
+    public static final long gossipPeriodMs = 2000;
+    // noeuds d'amorce (-Dagent.seeds=hôte:port,...) : un noeud leur diffuse
+    // sa charge dès son démarrage et apprend d'eux les autres membres
+    public static final List<Node> seeds = Node.parseList(System.getProperty(
+        "agent.seeds",
+        "localhost:2000,localhost:2001,localhost:2002,localhost:2003,localhost:2004"));
+    // adresse annoncée par les serveurs (-Dagent.host=...), par défaut le
+    // nom de la machine
+    public static final String host = System.getProperty("agent.host");
+    // messages en attente par boîte aux lettres, au-delà ils sont perdus
+    public static final int mailboxCapacity = 1000;
+    // durée de vie des messages adressés à un nom qui ne s'enregistre pas
+    public static final long orphanMailTtlMs = 60000;
 }
@@ -0,0 +1,183 @@
+// platform/FrontCodedList.java
+package platform;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * Liste de chaînes immuable et compacte (front coding).
+ * Les chaînes sont rangées par blocs de 16 : la première en entier, les
+ * suivantes par la longueur du préfixe commun avec la précédente puis le
+ * suffixe, les longueurs en varint. Les listes de noms triés ("Hotel0",
+ * "Hotel1", ...) tiennent ainsi en quelques octets par élément, sur le réseau
+ * comme dans le tas du receveur : un bloc n'est décodé qu'à la lecture.
+ */
+public final class FrontCodedList extends AbstractList<String> implements RandomAccess, Serializable {
+
+    // accès aléatoire : au plus BLOCK - 1 chaînes à reconstruire
+    private static final int BLOCK = 16;
+
+    private transient int size;
+    private transient byte[] data;
+    private transient int[] blocks;
+
+    // dernier bloc décodé (les parcours séquentiels le relisent 16 fois)
+    private transient volatile Decoded last;
+
+    private static class Decoded {
+        final int block;
+        final String[] strings;
+
+        Decoded(int block, String[] strings) {
+            this.block = block;
+            this.strings = strings;
+        }
+    }
+
+    private FrontCodedList(int size, byte[] data) {
+        this.size = size;
+        this.data = data;
+        indexBlocks();
+    }
+
+    public static FrontCodedList of(Collection<String> strings) {
+        if (strings instanceof FrontCodedList list) {
+            return list;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] previous = null;
+        int i = 0;
+        for (String s : strings) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            if (i % BLOCK == 0) {
+                writeVarint(out, bytes.length);
+                out.write(bytes, 0, bytes.length);
+            } else {
+                int common = commonPrefix(previous, bytes);
+                writeVarint(out, common);
+                writeVarint(out, bytes.length - common);
+                out.write(bytes, common, bytes.length - common);
+            }
+            previous = bytes;
+            i++;
+        }
+        return new FrontCodedList(i, out.toByteArray());
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int block = index / BLOCK;
+        Decoded d = last;
+        if (d == null || d.block != block) {
+            d = new Decoded(block, decode(block));
+            last = d;
+        }
+        return d.strings[index % BLOCK];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // taille de la forme encodée, en octets
+    public int encodedSize() {
+        return data.length;
+    }
+
+    private String[] decode(int block) {
+        int count = Math.min(BLOCK, size - block * BLOCK);
+        String[] strings = new String[count];
+        int[] pos = { blocks[block] };
+
+        int length = readVarint(data, pos);
+        byte[] current = new byte[length];
+        System.arraycopy(data, pos[0], current, 0, length);
+        pos[0] += length;
+        strings[0] = new String(current, StandardCharsets.UTF_8);
+
+        for (int i = 1; i < count; i++) {
+            int common = readVarint(data, pos);
+            int suffix = readVarint(data, pos);
+            byte[] next = new byte[common + suffix];
+            System.arraycopy(current, 0, next, 0, common);
+            System.arraycopy(data, pos[0], next, common, suffix);
+            pos[0] += suffix;
+            strings[i] = new String(next, StandardCharsets.UTF_8);
+            current = next;
+        }
+        return strings;
+    }
+
+    // position du début de chaque bloc, recalculée à la réception plutôt qu'envoyée
+    private void indexBlocks() {
+        blocks = new int[(size + BLOCK - 1) / BLOCK];
+        int[] pos = { 0 };
+        for (int i = 0; i < size; i++) {
+            if (i % BLOCK == 0) {
+                blocks[i / BLOCK] = pos[0];
+                int length = readVarint(data, pos);
+                pos[0] += length;
+            } else {
+                readVarint(data, pos);
+                int suffix = readVarint(data, pos);
+                pos[0] += suffix;
+            }
+        }
+    }
+
+    private static int commonPrefix(byte[] a, byte[] b) {
+        int n = Math.min(a.length, b.length);
+        int i = 0;
+        while (i < n && a[i] == b[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int v) {
+        while ((v & ~0x7F) != 0) {
+            out.write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write(v);
+    }
+
+    private static int readVarint(byte[] data, int[] pos) {
+        int v = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[pos[0]++];
+            v |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return v;
+    }
+
+    // forme sérialisée : nombre de chaînes puis les octets encodés
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        size = in.readInt();
+        data = new byte[in.readInt()];
+        in.readFully(data);
+        indexBlocks();
+    }
+}
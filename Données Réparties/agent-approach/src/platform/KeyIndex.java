@@ -0,0 +1,111 @@
+// platform/KeyIndex.java
+package platform;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index trié sur les clés d'une ressource (tableau trié + recherche
+ * dichotomique). Permet à un agent de ne récupérer que la tranche de clés
+ * qui l'intéresse (préfixe, intervalle, page) au lieu de copier toute la
+ * ressource.
+ */
+public class KeyIndex<V> {
+
+    private final String[] keys;
+    private final Object[] values;
+
+    private KeyIndex(String[] keys, Object[] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    // index sur une liste de clés sans valeurs associées (ex : "hotels")
+    public static KeyIndex<Void> of(Collection<String> keys) {
+        String[] k = keys.toArray(new String[0]);
+        Arrays.sort(k);
+        return new KeyIndex<>(k, null);
+    }
+
+    // index sur les clés d'une map (ex : "directory")
+    public static <V> KeyIndex<V> of(Map<String, V> map) {
+        String[] k = map.keySet().toArray(new String[0]);
+        Arrays.sort(k);
+
+        Object[] v = new Object[k.length];
+        for (int i = 0; i < k.length; i++)
+            v[i] = map.get(k[i]);
+
+        return new KeyIndex<>(k, v);
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public List<String> keys() {
+        return Collections.unmodifiableList(Arrays.asList(keys));
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(String key) {
+        int i = Arrays.binarySearch(keys, key);
+        if (i < 0 || values == null)
+            return null;
+        return (V) values[i];
+    }
+
+    public boolean contains(String key) {
+        return Arrays.binarySearch(keys, key) >= 0;
+    }
+
+    // toutes les clés commençant par prefix
+    public List<String> prefix(String prefix) {
+        int from = lowerBound(prefix);
+        int to = from;
+        while (to < keys.length && keys[to].startsWith(prefix))
+            to++;
+        return slice(from, to);
+    }
+
+    // clés k telles que from <= k < to
+    public List<String> range(String from, String to) {
+        return slice(lowerBound(from), lowerBound(to));
+    }
+
+    // itération paginée : au plus limit clés strictement après "after"
+    // (after == null pour la première page)
+    public List<String> page(String after, int limit) {
+        int from = 0;
+        if (after != null) {
+            from = lowerBound(after);
+            if (from < keys.length && keys[from].equals(after))
+                from++;
+        }
+        // pas de from + limit : limit peut valoir Integer.MAX_VALUE
+        return slice(from, from + Math.min(keys.length - from, limit));
+    }
+
+    private List<String> slice(int from, int to) {
+        if (to <= from)
+            return new ArrayList<>();
+        return new ArrayList<>(Arrays.asList(keys).subList(from, to));
+    }
+
+    // première position i telle que keys[i] >= key
+    private int lowerBound(String key) {
+        int lo = 0, hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(key) < 0)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,13 @@
+// platform/LinkEmulator.java
+package platform;
+
+/**
+ * Émulation du réseau entre noeuds, branchée sur AgentSender par
+ * AgentSender.setLinkEmulator(). Permet de reproduire des conditions WAN
+ * sur une seule machine où tout passe par la boucle locale.
+ */
+public interface LinkEmulator {
+    // profil du lien from -> to, null si le lien n'est pas émulé
+    // (from est le nom du noeud émetteur, ex : "host:2001", ou "origin")
+    LinkProfile profile(String from, Node to);
+}
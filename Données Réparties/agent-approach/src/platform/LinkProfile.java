@@ -0,0 +1,39 @@
+// platform/LinkProfile.java
+package platform;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// caractéristiques d'un lien émulé : latence aller, gigue et débit maximum
+public class LinkProfile {
+    public final long latencyMs;
+    public final long jitterMs;
+    public final long bytesPerSecond; // 0 : débit illimité
+
+    public LinkProfile(long latencyMs, long jitterMs, long bytesPerSecond) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    // latence tirée pour une trame : latencyMs +/- jitterMs
+    public long sampleLatencyMs() {
+        if (jitterMs <= 0)
+            return latencyMs;
+        long j = ThreadLocalRandom.current().nextLong(-jitterMs, jitterMs + 1);
+        return Math.max(0, latencyMs + j);
+    }
+
+    // format "latence,gigue,débitKo/s", ex : 50,10,1000
+    public static LinkProfile parse(String s) {
+        String[] p = s.split(",");
+        return new LinkProfile(Long.parseLong(p[0]),
+                               p.length > 1 ? Long.parseLong(p[1]) : 0,
+                               p.length > 2 ? Long.parseLong(p[2]) * 1024 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return latencyMs + "ms +/-" + jitterMs + "ms, "
+            + (bytesPerSecond == 0 ? "unlimited" : (bytesPerSecond / 1024) + " KB/s");
+    }
+}
@@ -0,0 +1,23 @@
+// platform/LoadReport.java
+package platform;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Set;
+
+// charge d'un noeud et ressources qu'il héberge, diffusée périodiquement aux autres noeuds
+public class LoadReport implements Serializable {
+    public Node node;
+    public Set<String> resources;
+    public int queueDepth;   // agents et messages en attente d'envoi
+    public int activeAgents; // agents en cours d'exécution
+    public double cpu;       // charge système moyenne par coeur
+    public long summaryVersion; // version des résumés de clés (cf. SummaryCache)
+    public long timestamp;
+    public List<Node> members; // noeuds connus de l'émetteur, pour que les nouveaux se propagent
+
+    // plus le score est faible, moins le noeud est chargé
+    public double score() {
+        return queueDepth + activeAgents + 10 * cpu;
+    }
+}
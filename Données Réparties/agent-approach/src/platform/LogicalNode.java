@@ -0,0 +1,38 @@
+// platform/LogicalNode.java
+package platform;
+
+import java.util.Set;
+
+/**
+ * Destination désignée par le nom d'une ressource plutôt que par une adresse.
+ * À l'envoi, AgentSender la remplace par la réplique la moins chargée connue
+ * de ReplicaRouter, ou par l'adresse de repli si aucune n'est connue.
+ * Si l'envoi échoue, AgentSender essaie la réplique suivante.
+ */
+public class LogicalNode extends Node {
+    public String resource;
+
+    public LogicalNode(String resource, String fallbackHost, int fallbackPort) {
+        super(fallbackHost, fallbackPort);
+        this.resource = resource;
+    }
+
+    public Node resolve() {
+        return resolve(Set.of());
+    }
+
+    // meilleure réplique hors des noeuds de excluded (déjà essayés),
+    // null s'il n'en reste aucune
+    public Node resolve(Set<String> excluded) {
+        Node replica = ReplicaRouter.pick(resource, excluded);
+        if (replica != null)
+            return replica;
+        Node fallback = new Node(host, port);
+        return excluded.contains(fallback.toString()) ? null : fallback;
+    }
+
+    @Override
+    public String toString() {
+        return resource + "@" + super.toString();
+    }
+}
@@ -0,0 +1,10 @@
+// platform/MailMessage.java
+package platform;
+
+import java.io.Serializable;
+
+// message destiné à la boîte aux lettres "to" d'un autre noeud (contenu sérialisé)
+public class MailMessage implements Serializable {
+    public String to;
+    public byte[] payload;
+}
@@ -1,6 +1,8 @@
 package platform;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 public class Node implements Serializable {
     public String host;
@@ -11,6 +13,20 @@ public class Node implements Serializable {
         this.port = port;
     }
 
+    // liste "hôte:port,hôte:port,..."
+    public static List<Node> parseList(String s) {
+        List<Node> nodes = new ArrayList<>();
+        for (String item : s.split(",")) {
+            item = item.trim();
+            if (item.isEmpty())
+                continue;
+            int i = item.lastIndexOf(':');
+            nodes.add(new Node(item.substring(0, i),
+                               Integer.parseInt(item.substring(i + 1))));
+        }
+        return nodes;
+    }
+
     @Override
     public String toString() {
         return host + ":" + port;
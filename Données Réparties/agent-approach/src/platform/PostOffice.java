@@ -0,0 +1,154 @@
+// platform/PostOffice.java
+package platform;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boîtes aux lettres des agents d'un AgentServer.
+ * Un agent s'enregistre sous un nom et récupère le PostOffice dans son
+ * nameServer sous le nom PostOffice.NAME. Entre agents du même noeud les
+ * messages passent en mémoire ; vers un autre noeud ils sont sérialisés et
+ * acheminés par AgentSender comme les agents.
+ *
+ * Les messages envoyés à un autre noeud sont désérialisés avec le chargeur
+ * système : ils doivent n'utiliser que des classes du JDK ou de la
+ * plate-forme (String, collections, nombres...).
+ *
+ * Une boîte garde au plus Configuration.mailboxCapacity messages, les
+ * suivants sont perdus. La boîte d'un nom non enregistré (message arrivé
+ * avant l'enregistrement) est supprimée dès qu'elle est vide, ou avec son
+ * contenu au bout de Configuration.orphanMailTtlMs ; celle d'un agent qui se
+ * désenregistre est vidée.
+ */
+public class PostOffice {
+
+    public static final String NAME = "postOffice";
+
+    private final ConcurrentHashMap<String, Box> boxes = new ConcurrentHashMap<>();
+    private final Set<String> registered = ConcurrentHashMap.newKeySet();
+    private volatile long lastSweep = System.currentTimeMillis();
+
+    private static class Box {
+        final BlockingQueue<Serializable> queue =
+            new LinkedBlockingQueue<>(Configuration.mailboxCapacity);
+        // création de la boîte, pour l'expiration des boîtes orphelines
+        final long created = System.currentTimeMillis();
+    }
+
+    public void register(String name) {
+        registered.add(name);
+        box(name);
+    }
+
+    // les messages encore en attente sont perdus
+    public void unregister(String name) {
+        registered.remove(name);
+        Box box = boxes.remove(name);
+        if (box != null && !box.queue.isEmpty())
+            System.err.println("Discarding " + box.queue.size()
+                + " message(s) for unregistered " + name);
+    }
+
+    // envoi à un agent du même noeud ; l'ajout se fait sous le verrou de la
+    // boîte pour ne pas croiser sa suppression par reclaim()
+    public void send(String to, Serializable message) {
+        sweep();
+        boxes.compute(to, (n, box) -> {
+            if (box == null)
+                box = new Box();
+            if (!box.queue.offer(message))
+                System.err.println("Mailbox of " + n + " is full, message dropped");
+            return box;
+        });
+    }
+
+    // envoi à un agent d'un autre noeud ; le résultat signale l'échec
+    // éventuel de l'acheminement (noeud injoignable)
+    public CompletableFuture<Void> send(Node node, String to, Serializable message)
+        throws MoveException {
+
+        try {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            ObjectOutputStream oos = new ObjectOutputStream(bos);
+            oos.writeObject(message);
+            oos.flush();
+
+            MailMessage mail = new MailMessage();
+            mail.to = to;
+            mail.payload = bos.toByteArray();
+            return AgentSender.send(node, mail);
+
+        } catch (IOException e) {
+            throw new MoveException(e.getMessage());
+        }
+    }
+
+    // prochain message de la boîte, ou null au bout de timeoutMs
+    public Serializable receive(String name, long timeoutMs)
+        throws InterruptedException {
+        try {
+            return box(name).queue.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        } finally {
+            reclaim(name);
+        }
+    }
+
+    // prochain message de la boîte, null si elle est vide
+    public Serializable poll(String name) {
+        Box box = boxes.get(name);
+        if (box == null)
+            return null;
+        Serializable message = box.queue.poll();
+        reclaim(name);
+        return message;
+    }
+
+    // appelé par l'AgentServer pour un message venu d'un autre noeud
+    void deliver(MailMessage mail) throws IOException, ClassNotFoundException {
+        ObjectInputStream in = new ObjectInputStream(
+            new ByteArrayInputStream(mail.payload));
+        send(mail.to, (Serializable) in.readObject());
+    }
+
+    // la boîte est créée au premier usage : un message peut précéder l'enregistrement
+    private Box box(String name) {
+        return boxes.computeIfAbsent(name, n -> new Box());
+    }
+
+    // supprime la boîte d'un nom non enregistré une fois vide
+    private void reclaim(String name) {
+        boxes.computeIfPresent(name, (n, box) ->
+            box.queue.isEmpty() && !registered.contains(n) ? null : box);
+    }
+
+    // au plus une fois par demi-durée de vie : supprime les boîtes des noms
+    // restés non enregistrés au-delà de orphanMailTtlMs
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        if (now - lastSweep < Configuration.orphanMailTtlMs / 2)
+            return;
+        lastSweep = now;
+        for (String name : boxes.keySet()) {
+            boxes.computeIfPresent(name, (n, box) -> {
+                if (registered.contains(n)
+                    || now - box.created < Configuration.orphanMailTtlMs)
+                    return box;
+                if (!box.queue.isEmpty())
+                    System.err.println("Discarding " + box.queue.size()
+                        + " message(s) for " + n + ", never registered");
+                return null;
+            });
+        }
+    }
+}
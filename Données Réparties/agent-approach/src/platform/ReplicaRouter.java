@@ -0,0 +1,73 @@
+// platform/ReplicaRouter.java
+package platform;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Table des noeuds connus, alimentée par les LoadReport reçus.
+ * Une ressource peut être répliquée sur plusieurs noeuds sous le même nom ;
+ * pick() choisit la réplique en bonne santé la moins chargée.
+ * Un noeud est considéré en bonne santé si son dernier rapport a moins de
+ * trois périodes de diffusion et qu'aucun envoi vers lui n'a échoué depuis.
+ */
+public class ReplicaRouter {
+
+    private static final Map<String, LoadReport> reports = new HashMap<>();
+
+    public static synchronized void update(LoadReport report) {
+        LoadReport previous = reports.get(report.node.toString());
+        if (previous == null || previous.timestamp <= report.timestamp)
+            reports.put(report.node.toString(), report);
+    }
+
+    // un envoi vers ce noeud a échoué : on l'écarte jusqu'à son prochain rapport
+    public static synchronized void suspect(Node node) {
+        reports.remove(node.toString());
+    }
+
+    // version des résumés annoncée par le noeud, -1 sans rapport récent
+    public static synchronized long summaryVersion(Node node) {
+        LoadReport r = reports.get(node.toString());
+        if (r == null
+            || System.currentTimeMillis() - r.timestamp > 3 * Configuration.gossipPeriodMs)
+            return -1;
+        return r.summaryVersion;
+    }
+
+    // réplique la moins chargée de la ressource, null si aucune n'est connue
+    public static Node pick(String resource) {
+        return pick(resource, Set.of());
+    }
+
+    // idem, sans les noeuds de excluded
+    public static synchronized Node pick(String resource, Set<String> excluded) {
+        long now = System.currentTimeMillis();
+        List<LoadReport> best = new ArrayList<>();
+
+        for (LoadReport r : reports.values()) {
+            if (now - r.timestamp > 3 * Configuration.gossipPeriodMs)
+                continue;
+            if (!r.resources.contains(resource))
+                continue;
+            if (excluded.contains(r.node.toString()))
+                continue;
+
+            if (best.isEmpty() || r.score() < best.get(0).score()) {
+                best.clear();
+                best.add(r);
+            } else if (r.score() == best.get(0).score()) {
+                best.add(r);
+            }
+        }
+
+        if (best.isEmpty())
+            return null;
+        // à charge égale on répartit au hasard
+        return best.get(ThreadLocalRandom.current().nextInt(best.size())).node;
+    }
+}
@@ -0,0 +1,38 @@
+// platform/StaticLinkEmulator.java
+package platform;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// table fixe de profils par couple de ports, avec un profil par défaut
+public class StaticLinkEmulator implements LinkEmulator {
+
+    private final LinkProfile defaultProfile;
+    private final Map<String, LinkProfile> links = new HashMap<>();
+
+    public StaticLinkEmulator(LinkProfile defaultProfile) {
+        this.defaultProfile = defaultProfile;
+    }
+
+    // fromPort = -1 pour tous les émetteurs
+    public void set(int fromPort, int toPort, LinkProfile profile) {
+        links.put(fromPort + "->" + toPort, profile);
+    }
+
+    @Override
+    public LinkProfile profile(String from, Node to) {
+        LinkProfile p = links.get(port(from) + "->" + to.port);
+        if (p == null)
+            p = links.get(-1 + "->" + to.port);
+        return p != null ? p : defaultProfile;
+    }
+
+    private static int port(String node) {
+        int i = node.lastIndexOf(':');
+        try {
+            return i < 0 ? -1 : Integer.parseInt(node.substring(i + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+// platform/SummaryCache.java
+package platform;
+
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache local des résumés (BloomFilter) publiés par les autres serveurs.
+ * Un agent peut ainsi retirer de son itinéraire les serveurs qui ne
+ * détiennent certainement aucune de ses clés, sans s'y déplacer.
+ *
+ * Chaque serveur numérote ses résumés (une version par bind()) et annonce
+ * la version courante dans ses LoadReport ; un résumé en cache est
+ * redemandé dès que la version annoncée le dépasse. Entre un bind() et la
+ * diffusion suivante (Configuration.gossipPeriodMs) le cache peut encore
+ * être en retard et écarter à tort un serveur qui vient de recevoir la
+ * clé. Pour un noeud dont on n'a pas de rapport récent, le résumé est
+ * redemandé au bout de Configuration.summaryTtlMs.
+ */
+public class SummaryCache {
+
+    private static class Entry {
+        Map<String, BloomFilter> filters;
+        long version;
+        long fetchedAt;
+    }
+
+    private static final ConcurrentHashMap<String, Entry> cache =
+        new ConcurrentHashMap<>();
+
+    // résumés du serveur target, null s'il n'est pas joignable ; seul ce
+    // noeud est verrouillé pendant le chargement
+    public static Map<String, BloomFilter> get(Node target) {
+        Entry e = cache.computeIfAbsent(target.toString(), k -> new Entry());
+        synchronized (e) {
+            long now = System.currentTimeMillis();
+            long announced = ReplicaRouter.summaryVersion(target);
+            boolean stale = e.filters == null
+                || (announced >= 0 ? announced > e.version
+                                   : now - e.fetchedAt > Configuration.summaryTtlMs);
+
+            if (stale) {
+                SummaryReply reply = fetch(target);
+                if (reply == null)
+                    return null;
+                e.filters = reply.filters;
+                e.version = reply.version;
+                e.fetchedAt = now;
+            }
+            return e.filters;
+        }
+    }
+
+    public static void invalidate(Node target) {
+        cache.remove(target.toString());
+    }
+
+    // faux seulement si le serveur ne détient certainement pas la clé
+    public static boolean mightHold(Node target, String key) {
+        Map<String, BloomFilter> filters = get(target);
+        if (filters == null)
+            return true; // pas de résumé : on ne peut rien exclure
+
+        for (BloomFilter f : filters.values())
+            if (f.mightContain(key))
+                return true;
+        return false;
+    }
+
+    public static boolean mightHoldAny(Node target, Collection<String> keys) {
+        for (String k : keys)
+            if (mightHold(target, k))
+                return true;
+        return false;
+    }
+
+    // itinéraire privé des serveurs qui ne peuvent répondre pour aucune clé
+    public static List<Node> prune(List<Node> itinerary, Collection<String> keys) {
+        List<Node> kept = new ArrayList<>();
+        for (Node n : itinerary)
+            if (mightHoldAny(n, keys))
+                kept.add(n);
+        return kept;
+    }
+
+    private static SummaryReply fetch(Node target) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(target.host, target.port),
+                           Configuration.summaryTimeoutMs);
+            socket.setSoTimeout(Configuration.summaryTimeoutMs);
+
+            ObjectOutputStream out =
+                new ObjectOutputStream(socket.getOutputStream());
+            out.writeObject(new SummaryRequest());
+            out.flush();
+
+            ObjectInputStream in =
+                new ObjectInputStream(socket.getInputStream());
+            SummaryReply reply = (SummaryReply) in.readObject();
+            reply.filters = new HashMap<>(reply.filters);
+            return reply;
+
+        } catch (Exception e) {
+            System.err.println("No key summary from " + target + ": " + e);
+            return null;
+        }
+    }
+}
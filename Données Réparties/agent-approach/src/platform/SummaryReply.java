@@ -0,0 +1,11 @@
+// platform/SummaryReply.java
+package platform;
+
+import java.io.Serializable;
+import java.util.Map;
+
+// réponse à une SummaryRequest : résumés des ressources et version de ces résumés
+public class SummaryReply implements Serializable {
+    public long version;
+    public Map<String, BloomFilter> filters;
+}
@@ -0,0 +1,8 @@
+// platform/SummaryRequest.java
+package platform;
+
+import java.io.Serializable;
+
+// demande des résumés de clés d'un serveur ; la réponse est renvoyée sur la même connexion
+public class SummaryRequest implements Serializable {
+}
@@ -0,0 +1,51 @@
+// platform/ThrottledOutputStream.java
+package platform;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// flux limité à bytesPerSecond (par tranches, en dormant entre deux tranches)
+public class ThrottledOutputStream extends FilterOutputStream {
+
+    private static final int CHUNK = 16 * 1024;
+
+    private final long bytesPerSecond;
+    private final long start = System.nanoTime();
+    private long written = 0;
+
+    public ThrottledOutputStream(OutputStream out, long bytesPerSecond) {
+        super(out);
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        pace(1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = Math.min(len, CHUNK);
+            out.write(b, off, n);
+            pace(n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    private void pace(int n) throws IOException {
+        written += n;
+        long due = written * 1_000_000_000L / bytesPerSecond;
+        long ahead = due - (System.nanoTime() - start);
+        if (ahead > 0) {
+            try {
+                Thread.sleep(ahead / 1_000_000, (int) (ahead % 1_000_000));
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+}
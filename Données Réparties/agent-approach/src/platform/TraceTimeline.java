@@ -0,0 +1,103 @@
+// platform/TraceTimeline.java
+package platform;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Recolle les fichiers trace-*.jsonl écrits par plusieurs noeuds et affiche,
+ * pour chaque trace, la chronologie des spans puis le temps passé par saut.
+ *
+ *   java -cp bin platform.TraceTimeline trace-*.jsonl
+ *
+ * Les horloges des noeuds ne sont pas synchronisées : sur plusieurs machines
+ * les écarts entre spans de noeuds différents incluent leur décalage.
+ */
+public class TraceTimeline {
+
+    private static final Pattern SERVICE =
+        Pattern.compile("\"service.name\",\"value\":\\{\"stringValue\":\"([^\"]*)\"");
+    private static final Pattern TRACE = Pattern.compile("\"traceId\":\"([0-9a-f]+)\"");
+    private static final Pattern NAME = Pattern.compile("\"name\":\"([^\"]*)\",\"kind\"");
+    private static final Pattern START = Pattern.compile("\"startTimeUnixNano\":\"(\\d+)\"");
+    private static final Pattern END = Pattern.compile("\"endTimeUnixNano\":\"(\\d+)\"");
+    private static final Pattern HOP =
+        Pattern.compile("\"agent.hop\",\"value\":\\{\"intValue\":\"(-?\\d+)\"");
+    private static final Pattern AGENT =
+        Pattern.compile("\"agent.class\",\"value\":\\{\"stringValue\":\"([^\"]*)\"");
+
+    private static class Span {
+        String node, traceId, name, agent;
+        long start, end;
+        int hop;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, List<Span>> traces = new LinkedHashMap<>();
+
+        for (String file : args) {
+            for (String line : Files.readAllLines(Path.of(file))) {
+                if (line.isBlank())
+                    continue;
+                Span s = new Span();
+                s.node = find(SERVICE, line);
+                s.traceId = find(TRACE, line);
+                s.name = find(NAME, line);
+                s.agent = find(AGENT, line);
+                s.start = Long.parseLong(find(START, line));
+                s.end = Long.parseLong(find(END, line));
+                s.hop = Integer.parseInt(find(HOP, line));
+                traces.computeIfAbsent(s.traceId, k -> new ArrayList<>()).add(s);
+            }
+        }
+
+        for (Map.Entry<String, List<Span>> e : traces.entrySet()) {
+            List<Span> spans = e.getValue();
+            spans.sort((a, b) -> Long.compare(a.start, b.start));
+
+            long t0 = spans.get(0).start;
+            long t1 = spans.stream().mapToLong(s -> s.end).max().getAsLong();
+
+            System.out.println("=== Trace " + e.getKey() + " ("
+                + spans.get(0).agent + ", " + ms(t1 - t0) + " ms)");
+
+            for (Span s : spans)
+                System.out.printf("  +%9.3f ms  hop %2d  %-24s %-12s %9.3f ms%n",
+                    ms(s.start - t0), s.hop, s.node, s.name, ms(s.end - s.start));
+
+            // temps cumulé par saut, pour repérer celui qui domine
+            Map<Integer, Long> perHop = new TreeMap<>();
+            Map<Integer, String> hopNode = new TreeMap<>();
+            for (Span s : spans) {
+                perHop.merge(s.hop, s.end - s.start, Long::sum);
+                hopNode.putIfAbsent(s.hop, s.node);
+            }
+
+            int worst = perHop.entrySet().stream()
+                .max(Map.Entry.comparingByValue()).get().getKey();
+
+            System.out.println("  per hop:");
+            for (Map.Entry<Integer, Long> h : perHop.entrySet())
+                System.out.printf("    hop %2d  %-24s %9.3f ms%s%n",
+                    h.getKey(), hopNode.get(h.getKey()), ms(h.getValue()),
+                    h.getKey() == worst ? "  <- dominant" : "");
+            System.out.println();
+        }
+    }
+
+    private static String find(Pattern p, String line) {
+        Matcher m = p.matcher(line);
+        return m.find() ? m.group(1) : "";
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
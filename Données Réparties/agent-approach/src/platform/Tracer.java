@@ -0,0 +1,101 @@
+// platform/Tracer.java
+package platform;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Traces de bout en bout des agents.
+ * Chaque AgentMessage porte un identifiant de trace et un numéro de saut ;
+ * chaque noeud ajoute ses spans (queue, load, execute, migrate-out) à un
+ * fichier local trace-<noeud>.jsonl, une ligne OTLP-JSON (ResourceSpans)
+ * par span. TraceTimeline recolle ensuite les fichiers de plusieurs noeuds.
+ *
+ * L'écriture n'a lieu que si la JVM est lancée avec -Dagent.trace=true.
+ */
+public class Tracer {
+
+    // trace de l'agent en cours d'exécution sur ce thread
+    public static class Context {
+        public final String traceId;
+        public final int hop;
+        public final String node;
+
+        public Context(String traceId, int hop, String node) {
+            this.traceId = traceId;
+            this.hop = hop;
+            this.node = node;
+        }
+    }
+
+    private static final ThreadLocal<Context> current = new ThreadLocal<>();
+    private static final Map<String, PrintWriter> files = new HashMap<>();
+
+    public static Context current() {
+        return current.get();
+    }
+
+    public static void enter(Context ctx) {
+        current.set(ctx);
+    }
+
+    public static void exit() {
+        current.remove();
+    }
+
+    public static String newTraceId() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+
+    public static long nowNanos() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
+    public static void span(String node, String traceId, int hop,
+                            String name, String agentClass,
+                            long startNanos, long endNanos) {
+        if (!Configuration.tracing || traceId == null)
+            return;
+
+        String spanId = String.format("%016x",
+            ThreadLocalRandom.current().nextLong());
+
+        String line = "{\"resource\":{\"attributes\":["
+            + "{\"key\":\"service.name\",\"value\":{\"stringValue\":\"" + node + "\"}}]},"
+            + "\"scopeSpans\":[{\"scope\":{\"name\":\"platform\"},\"spans\":[{"
+            + "\"traceId\":\"" + traceId + "\","
+            + "\"spanId\":\"" + spanId + "\","
+            + "\"name\":\"" + name + "\","
+            + "\"kind\":1,"
+            + "\"startTimeUnixNano\":\"" + startNanos + "\","
+            + "\"endTimeUnixNano\":\"" + endNanos + "\","
+            + "\"attributes\":["
+            + "{\"key\":\"agent.hop\",\"value\":{\"intValue\":\"" + hop + "\"}},"
+            + "{\"key\":\"agent.class\",\"value\":{\"stringValue\":\"" + agentClass + "\"}}"
+            + "]}]}]}";
+
+        write(node, line);
+    }
+
+    private static synchronized void write(String node, String line) {
+        try {
+            PrintWriter out = files.get(node);
+            if (out == null) {
+                String file = "trace-" + node.replace(':', '_') + ".jsonl";
+                out = new PrintWriter(new FileWriter(file, true));
+                files.put(node, out);
+            }
+            out.println(line);
+            out.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
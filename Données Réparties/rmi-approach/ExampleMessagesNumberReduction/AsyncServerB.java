@@ -0,0 +1,56 @@
+import java.rmi.RemoteException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+// asynchronous client layer over a ServerB stub: many getPhone calls are in
+// flight at the same time on a bounded pool, so a lookup loop is limited by
+// throughput instead of one round trip per call. The remote interface is unchanged.
+public class AsyncServerB {
+
+    private final ServerB stub;
+    private final ExecutorService pool;
+    // caps the number of calls issued but not yet answered
+    private final Semaphore inFlight;
+
+    public AsyncServerB(ServerB stub, int threads, int maxInFlight) {
+        this.stub = stub;
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "async-serverb");
+            t.setDaemon(true);
+            return t;
+        });
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    // blocks only when maxInFlight calls are already pending; after shutdown()
+    // the future fails with a RejectedExecutionException
+    public CompletableFuture<String> getPhone(String name) throws InterruptedException {
+        if (pool.isShutdown()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("AsyncServerB is shut down"));
+        }
+        inFlight.acquire();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return stub.getPhone(name);
+                } catch (RemoteException e) {
+                    throw new CompletionException(e);
+                } finally {
+                    inFlight.release();
+                }
+            }, pool);
+        } catch (RejectedExecutionException e) {
+            // the task will never run: its permit is given back here
+            inFlight.release();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -1,42 +1,189 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
 import java.rmi.Naming;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class Client {
+
+    // bounds of the batch size chosen from the measured round trip time
+    private static final int MIN_BATCH = 64;
+    private static final int MAX_BATCH = 10000;
+    private static final int PROBE = 256;
+
+    // pool size and cap on outstanding calls of the "async" mode
+    private static final int ASYNC_THREADS = 32;
+    private static final int ASYNC_IN_FLIGHT = 256;
+
+    // wall and CPU time allowed to a task on the server
+    private static final long TASK_TIMEOUT_MS = 10000;
+
+    // names per ServerA -> ServerB call in the "join" mode
+    private static final int JOIN_BATCH = 2000;
+
+    // near cache of the "cached" mode
+    private static final int CACHE_ENTRIES = 50000;
+    private static final long CACHE_TTL_MS = 60000;
+
     public static void main(String[] args) {
         try {
-            
+            // benchmark mode: console output is dropped so that it is not timed
+            if (Configuration.bench) {
+                System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            }
+
             ServerA nameserv = (ServerA) Naming.lookup("//localhost/NameService");
-            
+
             ServerB repositoryserv = (ServerB) Naming.lookup("//localhost/RepositoryService");
 
-            System.out.println("client-server test with " + Configuration.recordnum + " elements ");
+            // "single": one getPhone call per name (original baseline)
+            // "batch" (default): paged names and bulk getPhones
+            // "async": getPhone calls pipelined through AsyncServerB
+            // "task": the lookup runs on ServerB as a SerializableTask, args[1] is the name prefix
+            // "join": ServerA streams its names to ServerB, only the pairs reach the client
+            // "cached": batch lookups through NearCachedServerB, done twice
+            String mode = args.length > 0 ? args[0] : "batch";
 
+            System.out.println("client-server test with " + Configuration.recordnum + " elements (" + mode + ")");
 
 
 
-            // time measuring
-            long start = System.currentTimeMillis();
 
-                // getting names from server a
-                List<String> nomi = nameserv.getNames();
-                System.out.println(nomi.size() + " names received");
+            // -Dbench.runs=N repeats the test in this JVM: the benchmark
+            // ignores the first runs (warm-up) and measures the others
+            for (int run = 0; run < Configuration.benchRuns; run++) {
+                long cpu = processCpuMs();
+                // time measuring
+                long start = System.currentTimeMillis();
+                test(mode, args, nameserv, repositoryserv);
+                long end = System.currentTimeMillis();
+
+                System.out.println("\n \n The RMI test took " + (end - start) + " ms");
+                if (Configuration.bench) {
+                    System.err.println("BENCH elapsedMs=" + (end - start) + " cpuMs=" + (processCpuMs() - cpu));
+                }
+            }
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    // one run of the test in the given mode
+    private static void test(String mode, String[] args, ServerA nameserv, ServerB repositoryserv) throws Exception {
+        if (mode.equals("single")) {
+            // getting names from server a
+            List<String> nomi = nameserv.getNames();
+            System.out.println(nomi.size() + " names received");
 
-                //getting phone numbers (of the names from server a) from server b
-                for (String nome : nomi) {
-                    String numero = repositoryserv.getPhone(nome);
-                        System.out.println( nome + "'s phone number: " + numero);
+            //getting phone numbers (of the names from server a) from server b
+            for (String nome : nomi) {
+                String numero = repositoryserv.getPhone(nome);
+                    System.out.println( nome + "'s phone number: " + numero);
 
+            }
+        } else if (mode.equals("task")) {
+            String prefix = args.length > 1 ? args[1] : "Name";
+            Map<String, String> found = RemoteTasks.execute(repositoryserv, new PrefixLookupTask(prefix), TASK_TIMEOUT_MS);
+            for (Map.Entry<String, String> e : found.entrySet()) {
+                System.out.println( e.getKey() + "'s phone number: " + e.getValue());
+            }
+            System.out.println(found.size() + " phones computed on the server");
+        } else if (mode.equals("join")) {
+            PairCollector sink = new PairCollector();
+            int matched = nameserv.joinWith(repositoryserv, sink, JOIN_BATCH);
+
+            List<String> nomi = sink.getNames();
+            List<String> numeri = sink.getPhones();
+            for (int i = 0; i < nomi.size(); i++) {
+                System.out.println( nomi.get(i) + "'s phone number: " + numeri.get(i));
+            }
+            System.out.println(matched + " pairs received");
+            UnicastRemoteObject.unexportObject(sink, true);
+        } else if (mode.equals("cached")) {
+            NearCachedServerB cache = new NearCachedServerB(repositoryserv, CACHE_ENTRIES, CACHE_TTL_MS);
+            List<String> nomi = nameserv.getNames();
+            System.out.println(nomi.size() + " names received");
+
+            // the second pass is answered from the client JVM
+            for (int pass = 0; pass < 2; pass++) {
+                long t = System.currentTimeMillis();
+                List<String> numeri = new ArrayList<>(nomi.size());
+                for (int from = 0; from < nomi.size(); from += MAX_BATCH) {
+                    numeri.addAll(cache.getPhones(nomi.subList(from, Math.min(nomi.size(), from + MAX_BATCH))));
                 }
+                for (int i = 0; i < nomi.size(); i++) {
+                    System.out.println( nomi.get(i) + "'s phone number: " + numeri.get(i));
+                }
+                System.out.println("pass " + pass + ": " + (System.currentTimeMillis() - t) + " ms");
+            }
+            System.out.println("near cache: " + cache.getHits() + " hits, " + cache.getMisses() + " misses");
+            cache.close();
+        } else if (mode.equals("async")) {
+            List<String> nomi = nameserv.getNames();
+            System.out.println(nomi.size() + " names received");
 
-            long end = System.currentTimeMillis();
-            
+            AsyncServerB async = new AsyncServerB(repositoryserv, ASYNC_THREADS, ASYNC_IN_FLIGHT);
+            List<CompletableFuture<String>> numeri = new ArrayList<>(nomi.size());
+            for (String nome : nomi) {
+                numeri.add(async.getPhone(nome));
+            }
+            for (int i = 0; i < nomi.size(); i++) {
+                System.out.println( nomi.get(i) + "'s phone number: " + numeri.get(i).join());
+            }
+            async.shutdown();
+        } else {
+            int batch = batchSize(nameserv, repositoryserv);
+            System.out.println("batch size: " + batch);
 
+            int count = nameserv.getNameCount();
+            for (int from = 0; from < count; from += batch) {
+                // one page of names, then all their phones in one call
+                List<String> nomi = nameserv.getNames(from, batch);
+                List<String> numeri = repositoryserv.getPhones(nomi);
 
-    
-            System.out.println("\n \n The RMI test took " + (end - start) + " ms");
+                for (int i = 0; i < nomi.size(); i++) {
+                    System.out.println( nomi.get(i) + "'s phone number: " + numeri.get(i));
+                }
+            }
+        }
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
+    // CPU time used by this JVM since it started
+    private static long processCpuMs() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            return os.getProcessCpuTime() / 1_000_000;
         }
+        return -1;
+    }
+
+    // picks a batch size so that the fixed round trip cost stays around 10%
+    // of the time of a batch: batch = 9 * rtt / (cost of one element)
+    private static int batchSize(ServerA nameserv, ServerB repositoryserv) throws RemoteException {
+        List<String> probe = nameserv.getNames(0, PROBE);
+        if (probe.isEmpty()) {
+            return MIN_BATCH;
+        }
+
+        // round trip time: best of a few single calls
+        long rtt = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long t = System.nanoTime();
+            repositoryserv.getPhone(probe.get(0));
+            rtt = Math.min(rtt, System.nanoTime() - t);
+        }
+
+        repositoryserv.getPhones(probe); // warm-up (class loading, connection)
+        long t = System.nanoTime();
+        repositoryserv.getPhones(probe);
+        long perElement = Math.max(1, (System.nanoTime() - t - rtt) / probe.size());
+
+        long batch = 9 * rtt / perElement;
+        return (int) Math.max(MIN_BATCH, Math.min(MAX_BATCH, batch));
     }
-}
\ No newline at end of file
+}
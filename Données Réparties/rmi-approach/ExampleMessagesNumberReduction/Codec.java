@@ -0,0 +1,10 @@
+import java.io.IOException;
+import java.io.Serializable;
+
+// compression algorithm used by the compressing socket factories; it is
+// serialized with the client socket factory, so both sides use the same one
+public interface Codec extends Serializable {
+    byte[] compress(byte[] data, int off, int len) throws IOException;
+
+    byte[] decompress(byte[] data, int rawLength) throws IOException;
+}
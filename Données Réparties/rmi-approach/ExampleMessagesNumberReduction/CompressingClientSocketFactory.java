@@ -0,0 +1,34 @@
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.Socket;
+import java.rmi.server.RMIClientSocketFactory;
+
+// client half of the compressing transport; it travels inside the stub,
+// so clients compress without any change on their side
+public class CompressingClientSocketFactory implements RMIClientSocketFactory, Serializable {
+
+    private final Codec codec;
+    private final int minSize;
+
+    public CompressingClientSocketFactory(Codec codec, int minSize) {
+        this.codec = codec;
+        this.minSize = minSize;
+    }
+
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+        return new CompressingSocket(host, port, codec, minSize);
+    }
+
+    // RMI reuses connections between stubs whose factories are equal
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CompressingClientSocketFactory other
+            && other.codec.equals(codec) && other.minSize == minSize;
+    }
+
+    @Override
+    public int hashCode() {
+        return codec.hashCode() * 31 + minSize;
+    }
+}
@@ -0,0 +1,40 @@
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.rmi.server.RMIServerSocketFactory;
+
+// server half of the compressing transport, to pass when exporting a
+// UnicastRemoteObject together with a CompressingClientSocketFactory
+public class CompressingServerSocketFactory implements RMIServerSocketFactory {
+
+    private final Codec codec;
+    private final int minSize;
+
+    public CompressingServerSocketFactory(Codec codec, int minSize) {
+        this.codec = codec;
+        this.minSize = minSize;
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port) throws IOException {
+        return new ServerSocket(port) {
+            @Override
+            public Socket accept() throws IOException {
+                Socket s = new CompressingSocket(codec, minSize);
+                implAccept(s);
+                return s;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CompressingServerSocketFactory other
+            && other.codec.equals(codec) && other.minSize == minSize;
+    }
+
+    @Override
+    public int hashCode() {
+        return codec.hashCode() * 31 + minSize;
+    }
+}
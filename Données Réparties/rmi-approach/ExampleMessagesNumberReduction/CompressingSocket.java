@@ -0,0 +1,188 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+
+// socket whose streams are compressed frame by frame.
+// What is written is buffered until flush() (RMI flushes after each call and
+// each result) or until the buffer is full, then sent as one frame:
+//   [1 byte: 1 compressed, 0 raw][4 bytes: raw length][4 bytes: payload length][payload]
+// Frames smaller than minSize are sent raw, compressing them would not pay off.
+// No frame holds more than BUFFER_SIZE bytes, the reader rejects any header
+// that says otherwise before allocating anything.
+public class CompressingSocket extends Socket {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Codec codec;
+    private final int minSize;
+    private InputStream in;
+    private OutputStream out;
+
+    // server side, filled by ServerSocket.implAccept
+    public CompressingSocket(Codec codec, int minSize) {
+        super();
+        this.codec = codec;
+        this.minSize = minSize;
+    }
+
+    // client side
+    public CompressingSocket(String host, int port, Codec codec, int minSize) throws IOException {
+        super(host, port);
+        this.codec = codec;
+        this.minSize = minSize;
+    }
+
+    @Override
+    public synchronized InputStream getInputStream() throws IOException {
+        if (in == null) {
+            in = new FrameInputStream(super.getInputStream());
+        }
+        return in;
+    }
+
+    @Override
+    public synchronized OutputStream getOutputStream() throws IOException {
+        if (out == null) {
+            out = new FrameOutputStream(super.getOutputStream());
+        }
+        return out;
+    }
+
+    private class FrameOutputStream extends OutputStream {
+        private final DataOutputStream raw;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int count = 0;
+
+        FrameOutputStream(OutputStream raw) {
+            this.raw = new DataOutputStream(raw);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) {
+                writeFrame();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (count == buffer.length) {
+                    writeFrame();
+                }
+                int n = Math.min(len, buffer.length - count);
+                System.arraycopy(b, off, buffer, count, n);
+                count += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeFrame();
+            raw.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            raw.close();
+        }
+
+        private void writeFrame() throws IOException {
+            if (count == 0) {
+                return;
+            }
+            byte[] payload = null;
+            if (count >= minSize) {
+                payload = codec.compress(buffer, 0, count);
+                if (payload.length >= count) {
+                    payload = null; // incompressible: raw is smaller
+                }
+            }
+            if (payload != null) {
+                raw.writeByte(1);
+                raw.writeInt(count);
+                raw.writeInt(payload.length);
+                raw.write(payload);
+            } else {
+                raw.writeByte(0);
+                raw.writeInt(count);
+                raw.writeInt(count);
+                raw.write(buffer, 0, count);
+            }
+            count = 0;
+        }
+    }
+
+    private class FrameInputStream extends InputStream {
+        private final DataInputStream raw;
+        private byte[] frame = new byte[0];
+        private int pos = 0;
+
+        FrameInputStream(InputStream raw) {
+            this.raw = new DataInputStream(raw);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return frame[pos++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int n = Math.min(len, frame.length - pos);
+            System.arraycopy(frame, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return frame.length - pos;
+        }
+
+        @Override
+        public void close() throws IOException {
+            raw.close();
+        }
+
+        // reads the next frame when the current one is consumed, false at end of stream
+        private boolean fill() throws IOException {
+            while (pos == frame.length) {
+                int flag = raw.read();
+                if (flag < 0) {
+                    return false;
+                }
+                int rawLength = raw.readInt();
+                int payloadLength = raw.readInt();
+                if (flag > 1) {
+                    throw new IOException("Invalid frame flag " + flag);
+                }
+                if (rawLength < 0 || rawLength > BUFFER_SIZE || payloadLength < 0 || payloadLength > BUFFER_SIZE
+                        || (flag == 0 && payloadLength != rawLength)) {
+                    throw new IOException("Invalid frame lengths: raw " + rawLength + ", payload " + payloadLength);
+                }
+                byte[] payload = new byte[payloadLength];
+                raw.readFully(payload);
+                frame = flag == 1 ? codec.decompress(payload, rawLength) : payload;
+                pos = 0;
+            }
+            return true;
+        }
+    }
+}
@@ -2,7 +2,14 @@
 
 public class Configuration {
    
-    public static int recordnum = 20000; 
+    public static int recordnum = Integer.getInteger("recordnum", 20000); 
+
+    // benchmark mode (-Dbench=true): no console output, one BENCH line on stderr
+    public static boolean bench = Boolean.getBoolean("bench");
+
+    // runs of the test in one client JVM (-Dbench.runs=N), the first ones are
+    // the benchmark's warm-up
+    public static int benchRuns = Integer.getInteger("bench.runs", 1);
 }
 
 //   javac *.java
@@ -10,5 +17,8 @@ public class Configuration {
 // cd .\ExampleMessagesNumberReduction\
 // rmiregistry
 // java ServerAImpl
+//   compressed transport: rmiregistry -J-Dsun.rmi.registry.registryFilter="CompressingClientSocketFactory;DeflateCodec"
+//   then java -Dcompress=true ServerAImpl
 // java ServerBImpl
+//   task mode (runs client code in the server): java -Dtasks=true ServerBImpl
 //  java Client
\ No newline at end of file
@@ -0,0 +1,78 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Deflate (the algorithm of gzip/zip); BEST_SPEED by default since the
+// compression is done on every remote call
+public class DeflateCodec implements Codec {
+
+    private final int level;
+
+    public DeflateCodec() {
+        this(Deflater.BEST_SPEED);
+    }
+
+    public DeflateCodec(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public byte[] compress(byte[] data, int off, int len) throws IOException {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(data, off, len);
+            deflater.finish();
+            byte[] out = new byte[Math.max(64, len / 2)];
+            int size = 0;
+            while (!deflater.finished()) {
+                if (size == out.length) {
+                    out = Arrays.copyOf(out, out.length * 2);
+                }
+                size += deflater.deflate(out, size, out.length - size);
+            }
+            return Arrays.copyOf(out, size);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int rawLength) throws IOException {
+        if (rawLength < 0) {
+            throw new IOException("Invalid frame length " + rawLength);
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] out = new byte[rawLength];
+            int size = 0;
+            while (size < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(out, size, rawLength - size);
+                if (n == 0 && inflater.needsInput()) {
+                    throw new IOException("Truncated compressed frame");
+                }
+                size += n;
+            }
+            if (size != rawLength) {
+                throw new IOException("Compressed frame holds " + size + " bytes, " + rawLength + " expected");
+            }
+            return out;
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof DeflateCodec other && other.level == level;
+    }
+
+    @Override
+    public int hashCode() {
+        return level;
+    }
+}
@@ -0,0 +1,146 @@
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// near cache over a ServerB stub: phones already looked up are answered from
+// the client JVM. Entries are evicted in LRU order beyond maxEntries, expire
+// after ttlMs, and are dropped as soon as ServerB reports a change through a
+// RepositoryListener.
+public class NearCachedServerB {
+
+    private static class Entry {
+        final String phone; // null for an unknown name
+        final long expires;
+
+        Entry(String phone, long expires) {
+            this.phone = phone;
+            this.expires = expires;
+        }
+    }
+
+    // receives the invalidations pushed by ServerB
+    private class Invalidator extends UnicastRemoteObject implements RepositoryListener {
+        Invalidator() throws RemoteException {
+            super();
+        }
+
+        @Override
+        public void invalidated(List<String> names) throws RemoteException {
+            synchronized (NearCachedServerB.this) {
+                for (String name : names) {
+                    cache.remove(name);
+                }
+                epoch++;
+            }
+        }
+    }
+
+    private final ServerB stub;
+    private final long ttlMs;
+    private final LinkedHashMap<String, Entry> cache;
+    private final Invalidator invalidator;
+
+    // bumped on each invalidation: an answer fetched across one is not cached
+    private long epoch;
+    private long hits, misses;
+
+    public NearCachedServerB(ServerB stub, int maxEntries, long ttlMs) throws RemoteException {
+        this.stub = stub;
+        this.ttlMs = ttlMs;
+        // access order: the eldest entry is the least recently used one
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.invalidator = new Invalidator();
+        stub.addListener(invalidator);
+    }
+
+    public String getPhone(String name) throws RemoteException {
+        long seen;
+        synchronized (this) {
+            Entry e = lookup(name);
+            if (e != null) {
+                return e.phone;
+            }
+            seen = epoch;
+        }
+        String phone = stub.getPhone(name);
+        synchronized (this) {
+            if (epoch == seen) {
+                cache.put(name, new Entry(phone, System.currentTimeMillis() + ttlMs));
+            }
+        }
+        return phone;
+    }
+
+    // the names missing from the cache are fetched in one getPhones call
+    public List<String> getPhones(List<String> names) throws RemoteException {
+        List<String> phones = new ArrayList<>(names.size());
+        List<String> missing = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        long seen;
+        synchronized (this) {
+            for (String name : names) {
+                Entry e = lookup(name);
+                if (e == null) {
+                    missing.add(name);
+                    slots.add(phones.size());
+                }
+                phones.add(e == null ? null : e.phone);
+            }
+            seen = epoch;
+        }
+        if (missing.isEmpty()) {
+            return phones;
+        }
+
+        List<String> fetched = stub.getPhones(missing);
+        long expires = System.currentTimeMillis() + ttlMs;
+        synchronized (this) {
+            for (int i = 0; i < missing.size(); i++) {
+                phones.set(slots.get(i), fetched.get(i));
+                if (epoch == seen) {
+                    cache.put(missing.get(i), new Entry(fetched.get(i), expires));
+                }
+            }
+        }
+        return phones;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    // unregisters the listener; the cache must not be used afterwards
+    public void close() throws RemoteException {
+        try {
+            stub.removeListener(invalidator);
+        } finally {
+            UnicastRemoteObject.unexportObject(invalidator, true);
+        }
+    }
+
+    private Entry lookup(String name) {
+        Entry e = cache.get(name);
+        if (e != null && e.expires < System.currentTimeMillis()) {
+            cache.remove(name);
+            e = null;
+        }
+        if (e == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return e;
+    }
+}
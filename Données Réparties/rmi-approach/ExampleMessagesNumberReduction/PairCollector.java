@@ -0,0 +1,29 @@
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.List;
+
+// client side PairSink: keeps the pairs pushed by ServerB
+public class PairCollector extends UnicastRemoteObject implements PairSink {
+
+    private final List<String> names = new ArrayList<>();
+    private final List<String> phones = new ArrayList<>();
+
+    public PairCollector() throws RemoteException {
+        super();
+    }
+
+    @Override
+    public synchronized void accept(List<String> names, List<String> phones) throws RemoteException {
+        this.names.addAll(names);
+        this.phones.addAll(phones);
+    }
+
+    public synchronized List<String> getNames() {
+        return names;
+    }
+
+    public synchronized List<String> getPhones() {
+        return phones;
+    }
+}
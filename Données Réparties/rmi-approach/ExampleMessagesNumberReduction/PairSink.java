@@ -0,0 +1,9 @@
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.List;
+
+// callback exported by the client: receives the (name, phone) pairs of a
+// server-to-server join, batch by batch
+public interface PairSink extends Remote {
+    void accept(List<String> names, List<String> phones) throws RemoteException;
+}
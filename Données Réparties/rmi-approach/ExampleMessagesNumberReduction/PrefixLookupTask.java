@@ -0,0 +1,30 @@
+import java.util.HashMap;
+import java.util.Map;
+
+// example task for ServerB: all the phones of the names starting with prefix,
+// computed next to the repository so that only the matches travel
+public class PrefixLookupTask implements SerializableTask<HashMap<String, String>> {
+
+    private final String prefix;
+
+    public PrefixLookupTask(String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public HashMap<String, String> run(Map<String, Object> data) throws InterruptedException {
+        Map<String, String> repository = (Map<String, String>) data.get("repository");
+        HashMap<String, String> found = new HashMap<>();
+        int seen = 0;
+        for (Map.Entry<String, String> e : repository.entrySet()) {
+            if (++seen % 1024 == 0) {
+                SerializableTask.checkpoint();
+            }
+            if (e.getKey().startsWith(prefix)) {
+                found.put(e.getKey(), e.getValue());
+            }
+        }
+        return found;
+    }
+}
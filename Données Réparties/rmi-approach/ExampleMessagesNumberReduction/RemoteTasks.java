@@ -0,0 +1,83 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.rmi.RemoteException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// client side of TaskExecutor: ships the bytecode of a task once (identified by
+// its SHA-256 digest), then only its serialized state on each call.
+// Only the task class, its superclasses, interfaces and nested classes are
+// shipped; other classes it uses must exist on the server.
+public class RemoteTasks {
+
+    // (server, digest) pairs already uploaded from this JVM
+    private static final Set<String> uploaded = Collections.synchronizedSet(new HashSet<>());
+
+    @SuppressWarnings("unchecked")
+    public static <T> T execute(TaskExecutor server, SerializableTask<T> task, long timeoutMs) throws RemoteException {
+        try {
+            Map<String, byte[]> classes = new TreeMap<>();
+            collectClass(task.getClass(), classes);
+            String digest = digest(classes);
+
+            String key = server + "#" + digest;
+            if (!uploaded.contains(key)) {
+                if (!server.hasCode(digest)) {
+                    server.uploadCode(digest, classes);
+                }
+                uploaded.add(key);
+            }
+
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(bos);
+            out.writeObject(task);
+            out.flush();
+
+            return (T) server.execute(digest, task.getClass().getName(), bos.toByteArray(), timeoutMs);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new RemoteException("Cannot ship task " + task.getClass().getName(), e);
+        }
+    }
+
+    private static void collectClass(Class<?> c, Map<String, byte[]> map) throws IOException {
+        if (c == null || map.containsKey(c.getName()) || c.getClassLoader() == null) {
+            return; // JDK classes are already on the server
+        }
+        String path = "/" + c.getName().replace('.', '/') + ".class";
+        try (InputStream is = c.getResourceAsStream(path)) {
+            if (is == null) {
+                return;
+            }
+            map.put(c.getName(), is.readAllBytes());
+        }
+
+        collectClass(c.getSuperclass(), map);
+        for (Class<?> i : c.getInterfaces()) {
+            collectClass(i, map);
+        }
+        for (Class<?> nested : c.getDeclaredClasses()) {
+            collectClass(nested, map);
+        }
+    }
+
+    // SHA-256 of the class names and bytecode, in name order (also checked by TaskServer)
+    static String digest(Map<String, byte[]> classes) throws NoSuchAlgorithmException {
+        MessageDigest sha = MessageDigest.getInstance("SHA-256");
+        for (Map.Entry<String, byte[]> e : new TreeMap<>(classes).entrySet()) {
+            sha.update(e.getKey().getBytes());
+            sha.update(e.getValue());
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : sha.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
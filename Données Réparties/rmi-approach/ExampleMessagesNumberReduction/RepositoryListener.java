@@ -0,0 +1,8 @@
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.List;
+
+// callback registered on ServerB: told which names changed in the repository
+public interface RepositoryListener extends Remote {
+    void invalidated(List<String> names) throws RemoteException;
+}
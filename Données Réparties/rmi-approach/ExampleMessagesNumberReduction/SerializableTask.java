@@ -0,0 +1,22 @@
+import java.io.Serializable;
+import java.util.Map;
+
+// computation shipped to a server and run next to its data (see RemoteTasks).
+// data holds what the server exposes (ServerA: "names", ServerB: "repository");
+// the result should only use JDK classes, it is sent back to the client.
+// The values of data are read-only views of the server's objects.
+//
+// The time and CPU limits are cooperative: when a limit is exceeded the server
+// interrupts the task and answers the client at once, but the task only stops
+// if it calls checkpoint() (or another interruptible method) in its loops.
+public interface SerializableTask<T> extends Serializable {
+    T run(Map<String, Object> data) throws Exception;
+
+    // to be called regularly in long loops: throws once the server has
+    // cancelled the task
+    static void checkpoint() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException("Task cancelled");
+        }
+    }
+}
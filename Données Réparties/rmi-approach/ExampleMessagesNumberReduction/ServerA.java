@@ -3,6 +3,15 @@ import java.rmi.RemoteException;
 import java.util.List;
 
 // server a returns a list of names 
-public interface ServerA extends Remote {
+public interface ServerA extends Remote, TaskExecutor {
    List<String> getNames() throws RemoteException;
+
+   // paged access: the client fetches the list in slices of the size it wants
+   int getNameCount() throws RemoteException;
+   List<String> getNames(int from, int count) throws RemoteException;
+
+   // third-party transfer: streams the names to repository in batches, which
+   // sends the matched pairs to sink; returns the number of pairs once they
+   // have all been delivered
+   int joinWith(ServerB repository, PairSink sink, int batchSize) throws RemoteException;
 }
\ No newline at end of file
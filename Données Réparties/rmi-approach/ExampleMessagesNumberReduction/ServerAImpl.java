@@ -1,14 +1,29 @@
 import java.rmi.Naming;
 import java.rmi.RemoteException;
-import java.rmi.server.UnicastRemoteObject;
 import java.util.ArrayList;
 import java.util.List;
 
-public class ServerAImpl extends UnicastRemoteObject implements ServerA {
+public class ServerAImpl extends TaskServer implements ServerA {
 
     private List<String> names;
 
+    // what getNames() sends: the same list, front coded
+    private FrontCodedList encodedNames;
+
+    // frames below this size are not worth compressing
+    private static final int COMPRESSION_MIN_SIZE = 512;
+
     public ServerAImpl() throws RemoteException {
+        this(false, false);
+    }
+
+    // the name list is bandwidth bound: with compress it is exported with the
+    // compressing socket factories (null factories are the default sockets);
+    // tasks enables uploadCode/execute (see TaskServer)
+    public ServerAImpl(boolean compress, boolean tasks) throws RemoteException {
+        super(tasks, 0,
+              compress ? new CompressingClientSocketFactory(new DeflateCodec(), COMPRESSION_MIN_SIZE) : null,
+              compress ? new CompressingServerSocketFactory(new DeflateCodec(), COMPRESSION_MIN_SIZE) : null);
 
         // generate recordnum names
         names = new ArrayList<>();
@@ -16,18 +31,58 @@ public class ServerAImpl extends UnicastRemoteObject implements ServerA {
         for (int i = 0; i < Configuration.recordnum; i++) {
             names.add("Name" + i);
         }
+        encodedNames = FrontCodedList.of(names);
+        expose("names", names);
     
     }
 
     @Override
     public List<String> getNames() throws RemoteException {
         System.out.println("SA: name list: ");
-        return names;
+        return encodedNames;
+    }
+
+    @Override
+    public int getNameCount() throws RemoteException {
+        return names.size();
+    }
+
+    @Override
+    public List<String> getNames(int from, int count) throws RemoteException {
+        if (from < 0 || count < 0) {
+            throw new IllegalArgumentException("Invalid page: from=" + from + ", count=" + count);
+        }
+        if (from >= names.size()) {
+            return new ArrayList<>();
+        }
+        // no from + count: count may be Integer.MAX_VALUE
+        int to = from + Math.min(names.size() - from, count);
+        // copy, so that only the page is serialized
+        return FrontCodedList.of(names.subList(from, to));
+    }
+
+    @Override
+    public int joinWith(ServerB repository, PairSink sink, int batchSize) throws RemoteException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Invalid batch size " + batchSize);
+        }
+        // each join returns as soon as ServerB has queued the pairs, so the
+        // next batch is looked up while the previous one is delivered
+        int matched = 0;
+        for (int from = 0; from < names.size(); ) {
+            List<String> batch = getNames(from, batchSize);
+            matched += repository.join(batch, sink);
+            from += batch.size();
+        }
+        repository.flush(sink);
+        return matched;
     }
 
     public static void main(String[] args) {
         try {
-            ServerA aserver = new ServerAImpl();
+            // -Dcompress=true: compressed transport, -Dtasks=true: accepts
+            // SerializableTasks (see Configuration)
+            ServerA aserver = new ServerAImpl(Boolean.getBoolean("compress"), Boolean.getBoolean("tasks"));
 
             //saving in rmi registry
             Naming.rebind("//localhost/NameService", aserver);
@@ -1,9 +1,29 @@
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.util.List;
 
 
 //server b manages a telephone repository
-public interface ServerB extends Remote {
+public interface ServerB extends Remote, TaskExecutor {
 // to test n times with the client
    String getPhone(String name) throws RemoteException;
+
+// bulk lookup: one round trip for a whole batch, phones in the same order as names
+   List<String> getPhones(List<String> names) throws RemoteException;
+
+// join of a batch of names (sent by ServerA) against the repository; the pairs
+// found are queued for sink and delivered in the background while the next
+// batch comes in. Returns their number
+   int join(List<String> names, PairSink sink) throws RemoteException;
+
+// waits until all the pairs joined for sink have been delivered, and throws
+// the delivery error if there was one
+   void flush(PairSink sink) throws RemoteException;
+
+// updates a phone (null removes the name); the listeners are told afterwards
+   void setPhone(String name, String phone) throws RemoteException;
+
+// change notifications, used by the client near caches (NearCachedServerB)
+   void addListener(RepositoryListener listener) throws RemoteException;
+   void removeListener(RepositoryListener listener) throws RemoteException;
 }
\ No newline at end of file
@@ -1,21 +1,147 @@
 import java.rmi.Naming;
 import java.rmi.RemoteException;
-import java.rmi.server.UnicastRemoteObject;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-public class ServerBImpl extends UnicastRemoteObject implements ServerB {
+public class ServerBImpl extends TaskServer implements ServerB {
 
-    private HashMap<String, String> repository;
+    // batches of pairs queued for a sink before join() blocks
+    private static final int DELIVERY_WINDOW = 4;
+    // a delivery thread with nothing to send for this long gives up
+    private static final int DELIVERY_IDLE_SECONDS = 60;
+    // join and flush wait at most this long for a sink that does not accept
+    private static final int DELIVERY_TIMEOUT_SECONDS = 60;
+
+    // second stage of the join pipeline: one queue and one thread per sink,
+    // so that lookups (join) and deliveries (sink.accept) overlap
+    private class Delivery implements Runnable {
+        final PairSink sink;
+        // a List<List<String>> pair of names and phones, or the flush marker
+        final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(DELIVERY_WINDOW);
+        volatile RemoteException failure;
+        // callers between the closed check and the end of their put, and
+        // whether the thread has retired (both guarded by this)
+        private int pending;
+        private boolean closed;
+
+        Delivery(PairSink sink) {
+            this.sink = sink;
+        }
+
+        // false if the thread has retired: the caller must take a new Delivery
+        boolean enqueue(Object item) throws RemoteException {
+            synchronized (this) {
+                if (closed) {
+                    return false;
+                }
+                pending++;
+            }
+            try {
+                // blocks when DELIVERY_WINDOW batches are already waiting
+                if (!queue.offer(item, DELIVERY_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    throw new RemoteException("Sink does not accept pairs");
+                }
+                return true;
+            } catch (InterruptedException e) {
+                throw new RemoteException("Interrupted", e);
+            } finally {
+                synchronized (this) {
+                    pending--;
+                }
+            }
+        }
+
+        // retires the thread unless a caller is still enqueueing
+        private boolean retire() {
+            synchronized (this) {
+                if (pending > 0 || !queue.isEmpty()) {
+                    return false;
+                }
+                closed = true;
+            }
+            deliveries.remove(sink, this);
+            return true;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    Object item = queue.poll(DELIVERY_IDLE_SECONDS, TimeUnit.SECONDS);
+                    if (item == null || item instanceof CompletableFuture<?>) {
+                        boolean retired = retire();
+                        if (item != null) {
+                            ((CompletableFuture<?>) item).complete(null);
+                        }
+                        if (retired) {
+                            return;
+                        }
+                        continue;
+                    }
+                    if (failure == null) {
+                        List<?> pair = (List<?>) item;
+                        try {
+                            sink.accept(cast(pair.get(0)), cast(pair.get(1)));
+                        } catch (RemoteException e) {
+                            failure = e; // the remaining batches are dropped
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                synchronized (this) {
+                    closed = true;
+                }
+                deliveries.remove(sink, this);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<String> cast(Object list) {
+            return (List<String>) list;
+        }
+    }
+
+    private final Map<PairSink, Delivery> deliveries = new ConcurrentHashMap<>();
+
+    // concurrent: written by setPhone while other calls read it
+    private Map<String, String> repository;
+
+    private final List<RepositoryListener> listeners = new CopyOnWriteArrayList<>();
+    // one thread, so that the notifications keep the order of the updates
+    private final ExecutorService notifier = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "repository-notifier");
+        t.setDaemon(true);
+        return t;
+    });
 
     public ServerBImpl() throws RemoteException {
-        
+        this(false);
+    }
+
+    // tasks enables uploadCode/execute (see TaskServer)
+    public ServerBImpl(boolean tasks) throws RemoteException {
+        super(tasks);
+
         //the repository with names and phone numbers
-        repository = new HashMap<>();
+        repository = new ConcurrentHashMap<>();
         for (int i = 0; i < Configuration.recordnum; i++) {
             String name = "Name" + i;
             String number = "+3933" + i;
             repository.put(name, number);
         }
+        expose("repository", repository);
     }
 
     @Override
@@ -23,9 +149,105 @@ public class ServerBImpl extends UnicastRemoteObject implements ServerB {
         return repository.get(name);
     }
 
+    @Override
+    public List<String> getPhones(List<String> names) throws RemoteException {
+        List<String> phones = new ArrayList<>(names.size());
+        for (String name : names) {
+            phones.add(repository.get(name));
+        }
+        return phones;
+    }
+
+    @Override
+    public int join(List<String> names, PairSink sink) throws RemoteException {
+        List<String> found = new ArrayList<>();
+        List<String> phones = new ArrayList<>();
+        for (String name : names) {
+            String phone = repository.get(name);
+            if (phone != null) {
+                found.add(name);
+                phones.add(phone);
+            }
+        }
+        if (!found.isEmpty()) {
+            List<List<String>> pair = List.of(found, phones);
+            while (true) {
+                Delivery delivery = deliveries.computeIfAbsent(sink, s -> {
+                    Delivery d = new Delivery(s);
+                    Thread t = new Thread(d, "pair-delivery");
+                    t.setDaemon(true);
+                    t.start();
+                    return d;
+                });
+                if (delivery.failure != null) {
+                    throw new RemoteException("Cannot deliver pairs", delivery.failure);
+                }
+                if (delivery.enqueue(pair)) {
+                    break;
+                }
+                // retired between the lookup and the put: start a new one
+                deliveries.remove(sink, delivery);
+            }
+        }
+        return found.size();
+    }
+
+    @Override
+    public void flush(PairSink sink) throws RemoteException {
+        Delivery delivery = deliveries.get(sink);
+        if (delivery == null) {
+            return; // nothing queued, or already delivered
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        // a retired thread had delivered everything
+        if (delivery.enqueue(done)) {
+            try {
+                done.get(DELIVERY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                throw new RemoteException("Pairs not delivered after " + DELIVERY_TIMEOUT_SECONDS + " s");
+            } catch (InterruptedException | ExecutionException e) {
+                throw new RemoteException("Interrupted", e);
+            }
+        }
+        if (delivery.failure != null) {
+            throw new RemoteException("Cannot deliver pairs", delivery.failure);
+        }
+    }
+
+    @Override
+    public void setPhone(String name, String phone) throws RemoteException {
+        if (phone == null) {
+            repository.remove(name);
+        } else {
+            repository.put(name, phone);
+        }
+        List<String> changed = Collections.singletonList(name);
+        notifier.execute(() -> {
+            for (RepositoryListener l : listeners) {
+                try {
+                    l.invalidated(changed);
+                } catch (RemoteException e) {
+                    // client gone: stop notifying it
+                    listeners.remove(l);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void addListener(RepositoryListener listener) throws RemoteException {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(RepositoryListener listener) throws RemoteException {
+        listeners.remove(listener);
+    }
+
     public static void main(String[] args) {
         try {
-            ServerB bserver = new ServerBImpl();
+            // -Dtasks=true: accepts SerializableTasks (see Configuration)
+            ServerB bserver = new ServerBImpl(Boolean.getBoolean("tasks"));
             //saving in rmi registry
             Naming.rebind("//localhost/RepositoryService", bserver);
             System.out.println("Repository service ready");
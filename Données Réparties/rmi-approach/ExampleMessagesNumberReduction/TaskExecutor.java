@@ -0,0 +1,15 @@
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.Map;
+
+// remote entry point to run client code on a server ("stored procedures").
+// The bytecode of a task is uploaded once and then referred to by its digest.
+public interface TaskExecutor extends Remote {
+    boolean hasCode(String digest) throws RemoteException;
+
+    void uploadCode(String digest, Map<String, byte[]> classes) throws RemoteException;
+
+    // runs the serialized task and returns its result, within timeoutMs of wall time
+    // and of CPU time
+    Object execute(String digest, String taskClass, byte[] task, long timeoutMs) throws RemoteException;
+}
@@ -0,0 +1,246 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.rmi.RemoteException;
+import java.rmi.server.RMIClientSocketFactory;
+import java.rmi.server.RMIServerSocketFactory;
+import java.rmi.server.UnicastRemoteObject;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// base of the servers accepting SerializableTasks: keeps the uploaded code by
+// digest and runs the tasks on the data exposed by the subclass.
+// Tasks are client code run with the server's privileges, so they are refused
+// unless the server is built with tasks enabled (-Dtasks=true in the mains).
+// The limits are cooperative (see SerializableTask): a task past its limit is
+// interrupted and the client gets an error at once, but a task that ignores
+// the interruption keeps its thread until it ends. At most MAX_RUNAWAY such
+// tasks are tolerated; beyond that new tasks are refused. Running untrusted
+// code with hard limits would need a separate JVM per task.
+public abstract class TaskServer extends UnicastRemoteObject implements TaskExecutor {
+
+    // cancelled tasks still running, beyond which execute() refuses new ones
+    public static final int MAX_RUNAWAY = 4;
+
+    // uploaded code kept at a time (least recently used loader dropped first)
+    // and size of one upload
+    public static final int MAX_CODE = 16;
+    public static final int MAX_CODE_BYTES = 1024 * 1024;
+
+    // states of a worker
+    private static final int RUNNING = 0, CANCELLED = 1, DONE = 2;
+
+    private final boolean tasks;
+    // uploaded classes, one loader per digest, in access order (guarded by
+    // itself); a dropped loader goes away with its last running task
+    private final LinkedHashMap<String, TaskClassLoader> code = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TaskClassLoader> eldest) {
+            return size() > MAX_CODE;
+        }
+    };
+    private final Map<String, Object> data = new HashMap<>();
+    private final AtomicInteger runaway = new AtomicInteger();
+
+    protected TaskServer(boolean tasks) throws RemoteException {
+        super();
+        this.tasks = tasks;
+    }
+
+    protected TaskServer(boolean tasks, int port, RMIClientSocketFactory csf, RMIServerSocketFactory ssf) throws RemoteException {
+        super(port, csf, ssf);
+        this.tasks = tasks;
+    }
+
+    private void checkEnabled() throws RemoteException {
+        if (!tasks) {
+            throw new RemoteException("Tasks are disabled on this server (start it with -Dtasks=true)");
+        }
+    }
+
+    // makes a server object visible to tasks under name, through a read-only
+    // view: tasks cannot bypass the server's own update methods
+    protected void expose(String name, Object obj) {
+        data.put(name, readOnly(obj));
+    }
+
+    private static Object readOnly(Object obj) {
+        if (obj instanceof List<?> list) {
+            return Collections.unmodifiableList(list);
+        }
+        if (obj instanceof Set<?> set) {
+            return Collections.unmodifiableSet(set);
+        }
+        if (obj instanceof Collection<?> c) {
+            return Collections.unmodifiableCollection(c);
+        }
+        if (obj instanceof Map<?, ?> map) {
+            return Collections.unmodifiableMap(map);
+        }
+        if (obj instanceof String || obj instanceof Number || obj instanceof Boolean) {
+            return obj;
+        }
+        throw new IllegalArgumentException("No read-only view for " + obj.getClass().getName());
+    }
+
+    @Override
+    public boolean hasCode(String digest) throws RemoteException {
+        checkEnabled();
+        synchronized (code) {
+            return code.containsKey(digest);
+        }
+    }
+
+    @Override
+    public void uploadCode(String digest, Map<String, byte[]> classes) throws RemoteException {
+        checkEnabled();
+        long size = 0;
+        for (byte[] bytes : classes.values()) {
+            size += bytes.length;
+        }
+        if (size > MAX_CODE_BYTES) {
+            throw new RemoteException("Task code too large: " + size + " bytes");
+        }
+        // the digest is shared by all clients: it must really be this code's
+        try {
+            if (!RemoteTasks.digest(classes).equals(digest)) {
+                throw new RemoteException("Digest does not match the uploaded classes");
+            }
+        } catch (NoSuchAlgorithmException e) {
+            throw new RemoteException("Cannot check task code", e);
+        }
+        synchronized (code) {
+            code.putIfAbsent(digest, new TaskClassLoader(new HashMap<>(classes)));
+        }
+    }
+
+    @Override
+    public Object execute(String digest, String taskClass, byte[] task, long timeoutMs) throws RemoteException {
+        checkEnabled();
+        TaskClassLoader loader;
+        synchronized (code) {
+            loader = code.get(digest);
+        }
+        if (loader == null) {
+            throw new RemoteException("Unknown task code " + digest);
+        }
+        if (runaway.get() >= MAX_RUNAWAY) {
+            throw new RemoteException("Too many cancelled tasks still running");
+        }
+
+        SerializableTask<?> t;
+        try (ObjectInputStream in = new TaskInputStream(new ByteArrayInputStream(task), loader)) {
+            t = (SerializableTask<?>) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RemoteException("Cannot load task " + taskClass, e);
+        }
+
+        Object[] result = new Object[1];
+        Exception[] failure = new Exception[1];
+        Map<String, Object> view = Collections.unmodifiableMap(data);
+        // a cancelled worker counts as a runaway until it ends
+        int[] state = {RUNNING};
+
+        Thread worker = new Thread(() -> {
+            try {
+                result[0] = t.run(view);
+            } catch (Exception e) {
+                failure[0] = e;
+            } finally {
+                synchronized (state) {
+                    if (state[0] == CANCELLED) {
+                        runaway.decrementAndGet();
+                    }
+                    state[0] = DONE;
+                }
+            }
+        }, "task-" + taskClass);
+        worker.setDaemon(true);
+        worker.start();
+
+        // watchdog: wall time and CPU time of the worker both limited to timeoutMs
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long start = System.currentTimeMillis();
+        AtomicLong cpuNanos = new AtomicLong();
+        try {
+            while (worker.isAlive()) {
+                worker.join(10);
+                long cpu = threads.isThreadCpuTimeSupported() ? threads.getThreadCpuTime(worker.getId()) : 0;
+                cpuNanos.set(Math.max(cpuNanos.get(), cpu));
+                if (System.currentTimeMillis() - start > timeoutMs || cpuNanos.get() / 1_000_000 > timeoutMs) {
+                    cancel(worker, state);
+                    throw new RemoteException("Task " + taskClass + " exceeded " + timeoutMs + " ms");
+                }
+            }
+        } catch (InterruptedException e) {
+            cancel(worker, state);
+            throw new RemoteException("Interrupted", e);
+        }
+
+        if (failure[0] != null) {
+            throw new RemoteException("Task " + taskClass + " failed", failure[0]);
+        }
+        return result[0];
+    }
+
+    // only tasks that call SerializableTask.checkpoint() (or block
+    // interruptibly) actually stop; the others count as runaways until they end
+    private void cancel(Thread worker, int[] state) {
+        synchronized (state) {
+            if (state[0] == RUNNING) {
+                state[0] = CANCELLED;
+                runaway.incrementAndGet();
+            }
+        }
+        worker.interrupt();
+    }
+
+    private static class TaskClassLoader extends ClassLoader {
+        private final Map<String, byte[]> classes;
+
+        TaskClassLoader(Map<String, byte[]> classes) {
+            super(TaskServer.class.getClassLoader());
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classes.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    // resolves the classes of the task with its own loader
+    private static class TaskInputStream extends ObjectInputStream {
+        private final ClassLoader loader;
+
+        TaskInputStream(InputStream in, ClassLoader loader) throws IOException {
+            super(in);
+            this.loader = loader;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            try {
+                return Class.forName(desc.getName(), false, loader);
+            } catch (ClassNotFoundException e) {
+                return super.resolveClass(desc);
+            }
+        }
+    }
+}
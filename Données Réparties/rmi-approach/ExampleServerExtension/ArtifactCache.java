@@ -0,0 +1,275 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// cache of compressed files, keyed by file name, size and codec.
+// Memory is bounded in bytes with LRU eviction; evicted entries can be spilled
+// to a directory and are then served from disk instead of being recompressed.
+// The disk tier is bounded in bytes too, its LRU files are deleted, and close()
+// deletes the remaining ones.
+// The most requested keys that are no longer in memory are recomputed in the
+// background, so popular files stay warm.
+public class ArtifactCache {
+
+    public interface Loader {
+        byte[] load() throws IOException;
+    }
+
+    // keys whose request count and loader are remembered for precomputePopular
+    public static final int MAX_TRACKED = 1024;
+
+    private final long maxBytes;
+    private final File spillDir; // null: no spilling
+    private final long maxSpillBytes;
+    private long usedBytes = 0;
+
+    // access order: the first entry is the least recently used
+    private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(16, 0.75f, true);
+    // spill files in access order (guarded by itself)
+    private final LinkedHashMap<String, File> spilled = new LinkedHashMap<>(16, 0.75f, true);
+    private long spilledBytes = 0;
+    // evicted entries still being written to disk, served from here meanwhile
+    private final Map<String, byte[]> spilling = new ConcurrentHashMap<>();
+    private final AtomicInteger spillCount = new AtomicInteger();
+
+    // one computation per key at a time, even for concurrent requests
+    private final Map<String, CompletableFuture<byte[]>> pending = new ConcurrentHashMap<>();
+
+    private static class Tracked {
+        Loader loader;
+        int hits;
+    }
+
+    // request count and loader per key, at most MAX_TRACKED keys: the least
+    // recently requested one is forgotten first (guarded by itself)
+    private final LinkedHashMap<String, Tracked> tracked = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Tracked> eldest) {
+            return size() > MAX_TRACKED;
+        }
+    };
+
+    private final ScheduledExecutorService background = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "artifact-precompute");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ArtifactCache(long maxBytes, File spillDir, long maxSpillBytes) {
+        this.maxBytes = maxBytes;
+        this.spillDir = spillDir;
+        this.maxSpillBytes = maxSpillBytes;
+        if (spillDir != null) {
+            spillDir.mkdirs();
+        }
+    }
+
+    // stops the background work and deletes the spill files
+    public void close() {
+        background.shutdownNow();
+        synchronized (spilled) {
+            for (File file : spilled.values()) {
+                file.delete();
+            }
+            spilled.clear();
+            spilledBytes = 0;
+        }
+    }
+
+    public static String key(String fileName, int sizeKB, String codec) {
+        return fileName + "/" + sizeKB + "/" + codec;
+    }
+
+    // cached artifact, computed with loader on a miss
+    public byte[] get(String key, Loader loader) throws IOException {
+        synchronized (tracked) {
+            Tracked t = tracked.computeIfAbsent(key, k -> new Tracked());
+            t.loader = loader;
+            t.hits++;
+        }
+
+        byte[] data = lookup(key);
+        if (data != null) {
+            return data;
+        }
+
+        CompletableFuture<byte[]> mine = new CompletableFuture<>();
+        CompletableFuture<byte[]> running = pending.putIfAbsent(key, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                // the loader failed in the other request's thread
+                if (e.getCause() instanceof IOException io) {
+                    throw io;
+                }
+                throw new IOException(e.getCause());
+            }
+        }
+        try {
+            data = loader.load();
+            put(key, data);
+            mine.complete(data);
+            return data;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            pending.remove(key);
+        }
+    }
+
+    // cached artifact or null, without computing anything
+    public byte[] peek(String key) throws IOException {
+        return lookup(key);
+    }
+
+    // every periodSeconds, recomputes in memory the top most requested keys
+    // that have been evicted
+    public void precomputePopular(int top, long periodSeconds) {
+        background.scheduleWithFixedDelay(() -> {
+            List<Map.Entry<String, Tracked>> popular;
+            synchronized (tracked) {
+                popular = new ArrayList<>();
+                for (Map.Entry<String, Tracked> e : tracked.entrySet()) {
+                    Tracked copy = new Tracked();
+                    copy.loader = e.getValue().loader;
+                    copy.hits = e.getValue().hits;
+                    popular.add(Map.entry(e.getKey(), copy));
+                }
+            }
+            popular.sort((a, b) -> Integer.compare(b.getValue().hits, a.getValue().hits));
+
+            for (int i = 0; i < Math.min(top, popular.size()); i++) {
+                String key = popular.get(i).getKey();
+                synchronized (this) {
+                    if (memory.containsKey(key)) {
+                        continue;
+                    }
+                }
+                try {
+                    byte[] data = lookup(key); // from disk if it was spilled
+                    if (data == null) {
+                        data = popular.get(i).getValue().loader.load();
+                        put(key, data);
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    private byte[] lookup(String key) throws IOException {
+        synchronized (this) {
+            byte[] data = memory.get(key);
+            if (data != null) {
+                return data;
+            }
+        }
+        byte[] evicted = spilling.get(key);
+        if (evicted != null) {
+            return evicted;
+        }
+        File file;
+        synchronized (spilled) {
+            file = spilled.get(key);
+        }
+        if (file == null) {
+            return null;
+        }
+        byte[] data;
+        try {
+            data = Files.readAllBytes(file.toPath());
+        } catch (NoSuchFileException e) {
+            return null; // evicted from disk meanwhile: recomputed by the caller
+        }
+        put(key, data); // back in memory
+        return data;
+    }
+
+    // the LRU bookkeeping is done under the lock, the disk writes after it
+    private void put(String key, byte[] data) {
+        List<Map.Entry<String, byte[]>> evicted = new ArrayList<>();
+        synchronized (this) {
+            if (data.length > maxBytes) {
+                evicted.add(Map.entry(key, data));
+            } else {
+                byte[] previous = memory.put(key, data);
+                if (previous != null) {
+                    usedBytes -= previous.length;
+                }
+                usedBytes += data.length;
+
+                Iterator<Map.Entry<String, byte[]>> lru = memory.entrySet().iterator();
+                while (usedBytes > maxBytes && lru.hasNext()) {
+                    Map.Entry<String, byte[]> eldest = lru.next();
+                    lru.remove();
+                    usedBytes -= eldest.getValue().length;
+                    evicted.add(Map.entry(eldest.getKey(), eldest.getValue()));
+                }
+            }
+            if (spillDir != null) {
+                for (Map.Entry<String, byte[]> e : evicted) {
+                    spilling.put(e.getKey(), e.getValue());
+                }
+            }
+        }
+        for (Map.Entry<String, byte[]> e : evicted) {
+            spill(e.getKey(), e.getValue());
+        }
+    }
+
+    private void spill(String key, byte[] data) {
+        if (spillDir == null) {
+            return;
+        }
+        try {
+            synchronized (spilled) {
+                if (spilled.containsKey(key) || data.length > maxSpillBytes) {
+                    return;
+                }
+            }
+            File file = new File(spillDir, Integer.toHexString(key.hashCode()) + "-" + spillCount.getAndIncrement() + ".bin");
+            Files.write(file.toPath(), data);
+
+            List<File> obsolete = new ArrayList<>();
+            synchronized (spilled) {
+                File previous = spilled.put(key, file);
+                if (previous != null) {
+                    // written twice concurrently: the older file goes
+                    spilledBytes -= previous.length();
+                    obsolete.add(previous);
+                }
+                spilledBytes += data.length;
+                Iterator<File> lru = spilled.values().iterator();
+                while (spilledBytes > maxSpillBytes && lru.hasNext()) {
+                    File eldest = lru.next();
+                    lru.remove();
+                    spilledBytes -= eldest.length();
+                    obsolete.add(eldest);
+                }
+            }
+            for (File f : obsolete) {
+                f.delete();
+            }
+        } catch (IOException e) {
+            e.printStackTrace(); // the entry is simply recomputed next time
+        } finally {
+            spilling.remove(key, data);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.rmi.server.Unreferenced;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// server side of a streamed download: a background thread writes the content
+// into a bounded queue of chunks (the prefetch window) and the client pulls
+// them with next(). The producer blocks when the client falls behind, so the
+// server never holds more than window chunks of a file. A client that goes
+// away without close() is detected by the DGC (unreferenced) or by a full
+// window that nobody drains for STALL_TIMEOUT_SECONDS; either way the
+// producer stops and the object is unexported.
+public class ChunkProducer extends UnicastRemoteObject implements RemoteChunkIterator, Unreferenced {
+
+    public static final int CHUNK_SIZE = 64 * 1024;
+
+    // how long the producer waits for the client to take a chunk
+    public static final int STALL_TIMEOUT_SECONDS = 60;
+
+    // marks the end of the stream in the queue
+    private static final byte[] END = new byte[0];
+
+    public interface Content {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private final BlockingQueue<byte[]> chunks;
+    private final Thread producer;
+    private volatile Exception failure;
+    // set by close(), unreferenced() or a stalled client: nothing more is queued
+    private volatile boolean closed = false;
+    private boolean finished = false;
+
+    public ChunkProducer(int window, Content content) throws RemoteException {
+        super();
+        chunks = new ArrayBlockingQueue<>(window);
+
+        producer = new Thread(() -> {
+            try (OutputStream out = new ChunkOutputStream()) {
+                content.writeTo(out);
+            } catch (Exception e) {
+                failure = e;
+            }
+            try {
+                if (closed || !chunks.offer(END, STALL_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    release();
+                }
+            } catch (InterruptedException e) {
+                release();
+            }
+        }, "chunk-producer");
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    @Override
+    public synchronized byte[] next() throws RemoteException {
+        if (finished) {
+            return null;
+        }
+        try {
+            byte[] chunk = chunks.take();
+            if (chunk == END) {
+                finished = true;
+                release();
+                if (failure != null) {
+                    throw new RemoteException("Streaming error", failure);
+                }
+                return null;
+            }
+            return chunk;
+        } catch (InterruptedException e) {
+            throw new RemoteException("Interrupted", e);
+        }
+    }
+
+    @Override
+    public void close() throws RemoteException {
+        closed = true;
+        producer.interrupt();
+        release();
+    }
+
+    // no client holds a reference any more (it died or dropped the stub)
+    @Override
+    public void unreferenced() {
+        closed = true;
+        producer.interrupt();
+        release();
+    }
+
+    private void release() {
+        try {
+            UnicastRemoteObject.unexportObject(this, true);
+        } catch (NoSuchObjectException e) {
+            // already released
+        }
+    }
+
+    // cuts what is written into CHUNK_SIZE chunks and queues them
+    private class ChunkOutputStream extends OutputStream {
+        private final byte[] buffer = new byte[CHUNK_SIZE];
+        private int count = 0;
+
+        @Override
+        public void write(int b) throws IOException {
+            buffer[count++] = (byte) b;
+            if (count == buffer.length) {
+                emit();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                int n = Math.min(len, buffer.length - count);
+                System.arraycopy(b, off, buffer, count, n);
+                count += n;
+                off += n;
+                len -= n;
+                if (count == buffer.length) {
+                    emit();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (count > 0) {
+                emit();
+            }
+        }
+
+        private void emit() throws IOException {
+            if (closed) {
+                throw new IOException("Download closed");
+            }
+            try {
+                if (!chunks.offer(Arrays.copyOf(buffer, count), STALL_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    closed = true;
+                    throw new IOException("Client stopped reading");
+                }
+            } catch (InterruptedException e) {
+                throw new IOException("Download closed", e);
+            }
+            count = 0;
+        }
+    }
+}
@@ -1,39 +1,101 @@
 import java.rmi.Naming;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
 import java.io.ByteArrayInputStream;
 import java.util.zip.GZIPInputStream;
 
 public class CompressClient {
 
+    // number of chunks fetched ahead of the decompression in stream mode
+    private static final int PREFETCH_CHUNKS = 8;
+
+    // benchmark mode (-Dbench=true): no console output, one BENCH line on stderr
+    private static final boolean BENCH = Boolean.getBoolean("bench");
+    private static final int RUNS = Integer.getInteger("bench.runs", 1);
+
     public static void main(String[] args) {
         try {
+            if (BENCH) {
+                System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            }
             
             FileService service = (FileService) Naming.lookup("//localhost/FileService");
             
-            System.out.println("-starting download-");
+            // "stream": chunked download, decompressed while it arrives
+            boolean stream = args.length > 0 && args[0].equals("stream");
 
-           //timing
-            long start = System.currentTimeMillis();
+            System.out.println("-starting download-" + (stream ? " (stream)" : ""));
 
-            
-            byte[] compressedData = service.downloadFile("testfile.dat");
-            
-            // decompressing
-            ByteArrayInputStream ins = new ByteArrayInputStream(compressedData);
-            GZIPInputStream zip = new GZIPInputStream(ins);
+            // -Dbench.runs=N: the downloads are repeated in this JVM, the
+            // benchmark ignores the first ones (warm-up)
+            for (int run = 0; run < RUNS; run++) {
+                download(service, stream);
+            }
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    // one download, timed
+    private static void download(FileService service, boolean stream) throws Exception {
+        long cpu = processCpuMs();
+       //timing
+        long start = System.currentTimeMillis();
+
+        if (stream) {
+            RemoteInputStream remote = new RemoteInputStream(service.openDownload("testfile.dat"), PREFETCH_CHUNKS);
+            GZIPInputStream zip = new GZIPInputStream(remote);
 
-            byte[] decompressedData = zip.readAllBytes();
+            // only a buffer is kept: memory does not depend on the file size
+            byte[] buffer = new byte[64 * 1024];
+            long decompressed = 0;
+            int n;
+            while ((n = zip.read(buffer)) > 0) {
+                decompressed += n;
+            }
+            zip.close();
 
             long end = System.currentTimeMillis();
-            
 
-               //------ Mostriamo la differenza di dimensioni
-               System.out.println("Downloaded file size: " + (compressedData.length / 1024) + " KB");
-               System.out.println("Decompressed file size: " + (decompressedData.length / 1024) + " KB");
-               
+            System.out.println("Downloaded file size: " + (remote.bytesReceived() / 1024) + " KB");
+            System.out.println("Decompressed file size: " + (decompressed / 1024) + " KB");
             System.out.println(" \n time taken: " + (end - start) + " ms");
+            report(end - start, cpu);
+            return;
+        }
+        
+        byte[] compressedData = service.downloadFile("testfile.dat");
+        
+        // decompressing
+        ByteArrayInputStream ins = new ByteArrayInputStream(compressedData);
+        GZIPInputStream zip = new GZIPInputStream(ins);
 
-        } catch (Exception e) {
-            e.printStackTrace();
+        byte[] decompressedData = zip.readAllBytes();
+
+        long end = System.currentTimeMillis();
+        
+
+           //------ Mostriamo la differenza di dimensioni
+           System.out.println("Downloaded file size: " + (compressedData.length / 1024) + " KB");
+           System.out.println("Decompressed file size: " + (decompressedData.length / 1024) + " KB");
+           
+        System.out.println(" \n time taken: " + (end - start) + " ms");
+        report(end - start, cpu);
+    }
+
+    private static void report(long elapsedMs, long cpu) {
+        if (BENCH) {
+            System.err.println("BENCH elapsedMs=" + elapsedMs + " cpuMs=" + (processCpuMs() - cpu));
+        }
+    }
+
+    // CPU time used by this JVM since it started
+    private static long processCpuMs() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            return os.getProcessCpuTime() / 1_000_000;
         }
+        return -1;
     }
 }
\ No newline at end of file
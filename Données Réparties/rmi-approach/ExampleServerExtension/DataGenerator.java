@@ -1,17 +1,50 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
 //generates repating data to test its compression
 public class DataGenerator {
+
+    // share of each KB filled with As, the rest is random (-Dcompressibility=0..1);
+    // 1 by default: the whole file is As
+    private static final double COMPRESSIBILITY = Double.parseDouble(System.getProperty("compressibility", "1"));
     
     public static byte[] generateFile(int x) {
         int xbyte = x * 1024;
         byte[] data = new byte[xbyte];
         
-        // we fill the file with As 
-        for (int i = 0; i < xbyte; i++) {
-            data[i] = (byte) 'A';
+        // we fill the file with the repeated block
+        byte[] block = block();
+        for (int i = 0; i < xbyte; i += block.length) {
+            System.arraycopy(block, 0, data, i, Math.min(block.length, xbyte - i));
         }
         
         return data;
     }
+
+    // same content as generateFile, written block by block so that the
+    // whole file is never held in memory
+    public static void writeFile(int x, OutputStream out) throws IOException {
+        byte[] block = block();
+
+        long remaining = (long) x * 1024;
+        while (remaining > 0) {
+            int n = (int) Math.min(block.length, remaining);
+            out.write(block, 0, n);
+            remaining -= n;
+        }
+    }
+
+    // 64 KB of content, fixed seed so that every run gets the same file
+    private static byte[] block() {
+        byte[] block = new byte[64 * 1024];
+        Random random = new Random(42);
+        int repeated = (int) Math.round(COMPRESSIBILITY * 1024);
+        for (int i = 0; i < block.length; i++) {
+            block[i] = (i % 1024) < repeated ? (byte) 'A' : (byte) random.nextInt(256);
+        }
+        return block;
+    }
 }
 
 
@@ -4,11 +4,24 @@ import java.rmi.server.UnicastRemoteObject;
 import java.io.ByteArrayOutputStream;
 import java.util.zip.GZIPOutputStream;
 import java.io.IOException;
+import java.io.File;
 
 public class FileServer extends UnicastRemoteObject implements FileService {
 
+    // compressed files already produced; memory budget, optional spill
+    // directory and its budget can be set with -Dfileserver.cacheMB=...
+    // -Dfileserver.spill=dir -Dfileserver.spillMB=...
+    private final ArtifactCache cache;
+
     public FileServer() throws RemoteException {
         super();
+        String spill = System.getProperty("fileserver.spill");
+        cache = new ArtifactCache(Long.getLong("fileserver.cacheMB", 256) * 1024 * 1024,
+                                  spill == null ? null : new File(spill),
+                                  Long.getLong("fileserver.spillMB", 1024) * 1024 * 1024);
+        cache.precomputePopular(4, 30);
+        // spill files do not outlive the server
+        Runtime.getRuntime().addShutdownHook(new Thread(cache::close));
     }
 
     //compressing the file into zip
@@ -20,29 +33,29 @@ public class FileServer extends UnicastRemoteObject implements FileService {
         return out.toByteArray();
     }
 
-    @Override
-    public byte[] downloadFile(String fileName) throws RemoteException {
-        
+    //to change for tests (or -DsizeKB=...)
+    //------------------------------------------------------------------------------
+    private static final int SIZE_KB = Integer.getInteger("sizeKB", 10000);
+    //----------------------------------------------------------------------
 
+    // number of compressed chunks the server may produce ahead of the client
+    private static final int PREFETCH_CHUNKS = 8;
 
+    @Override
+    public byte[] downloadFile(String fileName) throws RemoteException {
         
-        //to change for tests
-        //------------------------------------------------------------------------------
-        int sizeKB = 10000; 
-        //----------------------------------------------------------------------
-
-
+        int sizeKB = SIZE_KB;
 
 
         System.out.println("Sending " + sizeKB + " KB file");
         
-        byte[] data = DataGenerator.generateFile(sizeKB);
-
         try {
             
-            byte[] compressedData = compress(data);
+            // generated and compressed only if not already in the cache
+            byte[] compressedData = cache.get(ArtifactCache.key(fileName, sizeKB, "gzip"),
+                    () -> compress(DataGenerator.generateFile(sizeKB)));
 
-            System.out.println("File size: " + (data.length / 1024) + " KB") ;
+            System.out.println("File size: " + sizeKB + " KB") ;
             System.out.println( " Compressed file size: " + (compressedData.length / 1024) + " KB");
             return compressedData;
         } catch (IOException e) {
@@ -51,6 +64,28 @@ public class FileServer extends UnicastRemoteObject implements FileService {
         }
     }
 
+    @Override
+    public RemoteChunkIterator openDownload(String fileName) throws RemoteException {
+        System.out.println("Streaming " + SIZE_KB + " KB file");
+
+        try {
+            byte[] cached = cache.peek(ArtifactCache.key(fileName, SIZE_KB, "gzip"));
+            if (cached != null) {
+                return new ChunkProducer(PREFETCH_CHUNKS, out -> out.write(cached));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        // the file is generated and compressed on a background thread while
+        // the client pulls the chunks already produced
+        return new ChunkProducer(PREFETCH_CHUNKS, out -> {
+            GZIPOutputStream zip = new GZIPOutputStream(out);
+            DataGenerator.writeFile(SIZE_KB, zip);
+            zip.close();
+        });
+    }
+
     public static void main(String[] args) {
         try {
             FileServer server = new FileServer();
@@ -7,4 +7,8 @@ import java.rmi.RemoteException;
 
 public interface FileService extends Remote {
     byte[] downloadFile(String fileName) throws RemoteException;
+
+    // streaming variant: the compressed file is returned chunk by chunk,
+    // compression on the server overlapping the transfer
+    RemoteChunkIterator openDownload(String fileName) throws RemoteException;
 }
\ No newline at end of file
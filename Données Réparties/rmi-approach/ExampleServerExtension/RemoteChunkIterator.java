@@ -0,0 +1,11 @@
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+// remote cursor over a file sent in chunks
+public interface RemoteChunkIterator extends Remote {
+    // next chunk, or null once the whole file has been sent
+    byte[] next() throws RemoteException;
+
+    // stops the transfer early and releases the server side
+    void close() throws RemoteException;
+}
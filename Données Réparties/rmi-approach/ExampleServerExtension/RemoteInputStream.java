@@ -0,0 +1,110 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.rmi.RemoteException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// client side of a streamed download: an InputStream over a RemoteChunkIterator.
+// A background thread keeps up to window chunks ahead of the reader, so the
+// transfer overlaps with what the client does with the data (decompression).
+public class RemoteInputStream extends InputStream {
+
+    // marks the end of the stream in the queue
+    private static final byte[] END = new byte[0];
+
+    private final RemoteChunkIterator source;
+    private final BlockingQueue<byte[]> prefetched;
+    private final Thread fetcher;
+    private volatile IOException failure;
+
+    private byte[] current = new byte[0];
+    private int pos = 0;
+    private boolean eof = false;
+    private long received = 0;
+
+    public RemoteInputStream(RemoteChunkIterator source, int window) {
+        this.source = source;
+        this.prefetched = new ArrayBlockingQueue<>(window);
+
+        fetcher = new Thread(() -> {
+            try {
+                byte[] chunk;
+                while ((chunk = source.next()) != null) {
+                    prefetched.put(chunk);
+                }
+            } catch (RemoteException e) {
+                failure = new IOException("Download failed", e);
+            } catch (InterruptedException e) {
+                return; // closed by the reader
+            }
+            try {
+                prefetched.put(END);
+            } catch (InterruptedException e) {
+                // closed by the reader
+            }
+        }, "chunk-fetcher");
+        fetcher.setDaemon(true);
+        fetcher.start();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return current[pos++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int n = Math.min(len, current.length - pos);
+        System.arraycopy(current, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    // makes sure current has unread bytes, false at the end of the stream
+    private boolean fill() throws IOException {
+        while (!eof && pos == current.length) {
+            try {
+                byte[] chunk = prefetched.take();
+                if (chunk == END) {
+                    eof = true;
+                    if (failure != null) {
+                        throw failure;
+                    }
+                } else {
+                    current = chunk;
+                    pos = 0;
+                    received += chunk.length;
+                }
+            } catch (InterruptedException e) {
+                throw new IOException("Interrupted", e);
+            }
+        }
+        return pos < current.length;
+    }
+
+    // bytes received from the server so far
+    public long bytesReceived() {
+        return received;
+    }
+
+    @Override
+    public void close() throws IOException {
+        fetcher.interrupt();
+        if (!eof) {
+            try {
+                source.close();
+            } catch (RemoteException e) {
+                // the server already released the download
+            }
+        }
+    }
+}
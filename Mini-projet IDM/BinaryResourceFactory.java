@@ -0,0 +1,101 @@
+package fr.n7.persistence;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceFactoryImpl;
+
+/**
+ * Fabrique des ressources au format binaire d'EMF (BinaryResourceImpl), pour les
+ * modèles SimplePDL comme PetriNet : le format ne dépend pas du métamodèle, chaque
+ * fichier désigne ses EPackage par leur nsURI.
+ *
+ * Comparé à XMI, il n'y a ni analyse XML ni résolution d'identifiants au chargement :
+ * les objets sont lus dans l'ordre de leur contenance et les références sont des
+ * numéros. Le chargement est complet (pas de chargement à la demande des grandes
+ * listes, qui demanderait des proxys de contenance et un code de modèle régénéré) ;
+ * ConvertModel --bench compare temps de chargement et mémoire avec XMI.
+ * S'enregistre à côté de "xmi" :
+ *   m.put(BinaryResourceFactory.EXTENSION, new BinaryResourceFactory());
+ */
+public class BinaryResourceFactory extends ResourceFactoryImpl {
+
+    // Extension des modèles binaires
+    public static final String EXTENSION = "bin";
+
+    // Taille des tampons de lecture et d'écriture
+    private static final int TAMPON = 1 << 16;
+
+    // Pile des threads de lecture et d'écriture (réservée, pas allouée d'avance)
+    private static final long PILE = 1L << 30;
+
+    @Override
+    public Resource createResource(URI uri) {
+        return new Ressource(uri);
+    }
+
+    // Ressource binaire dont les options par défaut valent pour save(null) et load(null)
+    private static class Ressource extends BinaryResourceImpl {
+
+        Ressource(URI uri) {
+            super(uri);
+            defaultSaveOptions = new HashMap<>();
+            defaultSaveOptions.put(OPTION_VERSION, BinaryIO.Version.VERSION_1_1);
+            // les littéraux (WorkSequenceType) sont écrits par leur valeur, pas par leur nom
+            defaultSaveOptions.put(OPTION_STYLE_BINARY_ENUMERATOR, Boolean.TRUE);
+            defaultSaveOptions.put(OPTION_BUFFER_CAPACITY, TAMPON);
+            defaultLoadOptions = new HashMap<>();
+            defaultLoadOptions.put(OPTION_BUFFER_CAPACITY, TAMPON);
+        }
+
+        // Un objet est écrit (et relu) en entier là où il est rencontré la première
+        // fois, même par une référence : une longue chaîne de WorkSequence ou d'arcs
+        // donne une récursion aussi profonde, d'où un thread à grande pile
+        @Override
+        protected void doSave(OutputStream outputStream, Map<?, ?> options) throws IOException {
+            surGrandePile(() -> super.doSave(outputStream, options));
+        }
+
+        @Override
+        protected void doLoad(InputStream inputStream, Map<?, ?> options) throws IOException {
+            surGrandePile(() -> super.doLoad(inputStream, options));
+        }
+    }
+
+    private interface Operation {
+        void run() throws IOException;
+    }
+
+    private static void surGrandePile(Operation operation) throws IOException {
+        FutureTask<Void> tache = new FutureTask<>(() -> {
+            operation.run();
+            return null;
+        });
+        new Thread(null, tache, "binary-resource", PILE).start();
+        try {
+            tache.get();
+        } catch (InterruptedException e) {
+            tache.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrompu pendant la lecture ou l'écriture");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw (Error) cause;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package fr.n7.petriNet1.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Réseau de Petri compilé en tableaux d'entiers, indépendant d'EMF.
+ *
+ * Places et transitions sont numérotées à partir de 0. Les arcs sont rangés par
+ * transition au format CSR (compressed sparse row) : les places en entrée de la
+ * transition t sont prePlace[preStart[t] .. preStart[t+1][, avec les poids
+ * correspondants dans preWeight ; idem pour les places en sortie avec post*.
+ * Pour chaque place, consumers donne (au même format) les transitions qui en
+ * consomment des jetons : ce sont les seules dont la sensibilisation peut changer
+ * quand le marquage de la place change.
+ *
+ * Un réseau compilé n'est jamais modifié et peut être partagé entre plusieurs
+ * simulateurs, y compris sur des threads différents.
+ */
+public final class CompiledNet {
+
+    final int places;
+    final int transitions;
+    final int[] initialMarking;
+
+    final int[] preStart;
+    final int[] prePlace;
+    final int[] preWeight;
+
+    final int[] postStart;
+    final int[] postPlace;
+    final int[] postWeight;
+
+    final int[] consumerStart;
+    final int[] consumers;
+
+    private final String[] placeNames;
+    private final String[] transitionNames;
+
+    /**
+     * Construire un réseau à partir de ses matrices d'incidence : pre[t][p] jetons
+     * consommés dans la place p par la transition t, post[t][p] jetons produits.
+     * Pratique pour de petits réseaux écrits à la main ; les gros réseaux passent par
+     * NetCompiler, qui remplit directement les tableaux creux.
+     *
+     * @param initialMarking marquage initial, une case par place
+     * @param pre poids des arcs place -> transition (0 : pas d'arc)
+     * @param post poids des arcs transition -> place (0 : pas d'arc)
+     */
+    public CompiledNet(int[] initialMarking, int[][] pre, int[][] post) {
+        this(initialMarking, creux(pre, initialMarking.length), creux(post, initialMarking.length), null, null);
+    }
+
+    /**
+     * Construire un réseau à partir de ses arcs au format CSR. Une place apparaît au
+     * plus une fois parmi les entrées (et parmi les sorties) d'une transition.
+     *
+     * @param initialMarking marquage initial, une case par place
+     * @param pre {preStart, prePlace, preWeight}
+     * @param post {postStart, postPlace, postWeight}
+     * @param placeNames noms des places (null : numéros)
+     * @param transitionNames noms des transitions (null : numéros)
+     */
+    CompiledNet(int[] initialMarking, int[][] pre, int[][] post, String[] placeNames, String[] transitionNames) {
+        this.places = initialMarking.length;
+        this.transitions = pre[0].length - 1;
+        this.initialMarking = initialMarking.clone();
+        for (int p = 0; p < this.places; p++) {
+            if (initialMarking[p] < 0) {
+                throw new IllegalArgumentException("marquage initial négatif pour la place " + p);
+            }
+        }
+
+        this.preStart = pre[0];
+        this.prePlace = pre[1];
+        this.preWeight = pre[2];
+        this.postStart = post[0];
+        this.postPlace = post[1];
+        this.postWeight = post[2];
+        if (this.postStart.length != this.preStart.length) {
+            throw new IllegalArgumentException("pre et post n'ont pas le même nombre de transitions");
+        }
+        verifierArcs(this.prePlace, this.preWeight, this.places);
+        verifierArcs(this.postPlace, this.postWeight, this.places);
+
+        // Transposée de pre : transitions qui consomment dans chaque place
+        this.consumerStart = new int[this.places + 1];
+        for (int p : this.prePlace) {
+            this.consumerStart[p + 1]++;
+        }
+        for (int p = 0; p < this.places; p++) {
+            this.consumerStart[p + 1] += this.consumerStart[p];
+        }
+        this.consumers = new int[this.prePlace.length];
+        int[] suivant = Arrays.copyOf(this.consumerStart, this.places);
+        for (int t = 0; t < this.transitions; t++) {
+            for (int i = this.preStart[t]; i < this.preStart[t + 1]; i++) {
+                this.consumers[suivant[this.prePlace[i]]++] = t;
+            }
+        }
+
+        this.placeNames = placeNames;
+        this.transitionNames = transitionNames;
+    }
+
+    public int getPlaceCount() {
+        return this.places;
+    }
+
+    public int getTransitionCount() {
+        return this.transitions;
+    }
+
+    public int[] getInitialMarking() {
+        return this.initialMarking.clone();
+    }
+
+    public String getPlaceName(int p) {
+        return this.placeNames == null ? "p" + p : this.placeNames[p];
+    }
+
+    public String getTransitionName(int t) {
+        return this.transitionNames == null ? "t" + t : this.transitionNames[t];
+    }
+
+    /**
+     * Indique si une transition est sensibilisée par un marquage.
+     *
+     * @param marking marquage, une case par place
+     * @param t numéro de la transition
+     * @return vrai si chaque place en entrée contient assez de jetons
+     */
+    public boolean isEnabled(int[] marking, int t) {
+        for (int i = this.preStart[t]; i < this.preStart[t + 1]; i++) {
+            if (marking[this.prePlace[i]] < this.preWeight[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tirer une transition sur un marquage, sans vérifier qu'elle est sensibilisée.
+     *
+     * @param marking marquage modifié sur place
+     * @param t numéro de la transition
+     * @throws ArithmeticException si une place dépasse Integer.MAX_VALUE jetons
+     */
+    public void fire(int[] marking, int t) {
+        for (int i = this.preStart[t]; i < this.preStart[t + 1]; i++) {
+            marking[this.prePlace[i]] -= this.preWeight[i];
+        }
+        for (int i = this.postStart[t]; i < this.postStart[t + 1]; i++) {
+            marking[this.postPlace[i]] = Math.addExact(marking[this.postPlace[i]], this.postWeight[i]);
+        }
+    }
+
+    // Matrice dense [transition][place] -> {start, place, weight}
+    private static int[][] creux(int[][] matrice, int places) {
+        int[] start = new int[matrice.length + 1];
+        for (int t = 0; t < matrice.length; t++) {
+            if (matrice[t].length != places) {
+                throw new IllegalArgumentException("la transition " + t + " n'a pas une colonne par place");
+            }
+            start[t + 1] = start[t];
+            for (int w : matrice[t]) {
+                if (w != 0) {
+                    start[t + 1]++;
+                }
+            }
+        }
+        int[] place = new int[start[matrice.length]];
+        int[] weight = new int[place.length];
+        int i = 0;
+        for (int[] ligne : matrice) {
+            for (int p = 0; p < places; p++) {
+                if (ligne[p] != 0) {
+                    place[i] = p;
+                    weight[i++] = ligne[p];
+                }
+            }
+        }
+        return new int[][] {start, place, weight};
+    }
+
+    private static void verifierArcs(int[] place, int[] weight, int places) {
+        for (int i = 0; i < place.length; i++) {
+            if (place[i] < 0 || place[i] >= places) {
+                throw new IllegalArgumentException("arc vers une place inexistante : " + place[i]);
+            }
+            if (weight[i] < 1) {
+                throw new IllegalArgumentException("arc de poids " + weight[i] + " (au moins 1 attendu)");
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package fr.n7.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+
+import petriNet1.PetriNet1Package;
+import simplepdl.SimplepdlPackage;
+
+/**
+ * Conversion de modèles SimplePDL ou PetriNet entre XMI et le format binaire (dans
+ * un sens ou dans l'autre, selon l'extension des fichiers).
+ *
+ * Avec --bench, chaque modèle est chargé plusieurs fois : le meilleur temps de
+ * chargement et la mémoire retenue par le modèle chargé permettent de comparer les
+ * deux formats (par exemple sur modele.xmi et modele.bin).
+ *
+ * Usage : ConvertModel entree.xmi sortie.bin [entree2 sortie2 ...]
+ *         ConvertModel --bench modele [modele2 ...]
+ */
+public class ConvertModel {
+
+    // Chargements par modèle avec --bench (le premier sert d'échauffement)
+    private static final int CHARGEMENTS = 5;
+
+    public static void main(String... args) throws IOException {
+        boolean bench = args.length > 0 && args[0].equals("--bench");
+        if (args.length == 0 || (bench ? args.length == 1 : args.length % 2 != 0)) {
+            System.err.println("Usage : ConvertModel entree sortie [entree2 sortie2 ...]");
+            System.err.println("        ConvertModel --bench modele [modele2 ...]");
+            return;
+        }
+
+        // Initialisation des packages pour charger les deux métamodèles
+        @SuppressWarnings("unused")
+        SimplepdlPackage simplepdlPackage = SimplepdlPackage.eINSTANCE;
+        @SuppressWarnings("unused")
+        PetriNet1Package petriNetPackage = PetriNet1Package.eINSTANCE;
+
+        Resource.Factory.Registry reg = Resource.Factory.Registry.INSTANCE;
+        Map<String, Object> m = reg.getExtensionToFactoryMap();
+        m.put("xmi", new XMIResourceFactoryImpl());
+        m.put(BinaryResourceFactory.EXTENSION, new BinaryResourceFactory());
+
+        if (bench) {
+            for (int i = 1; i < args.length; i++) {
+                mesurer(args[i]);
+            }
+            return;
+        }
+        for (int i = 0; i < args.length; i += 2) {
+            convertir(args[i], args[i + 1]);
+        }
+    }
+
+    private static void mesurer(String modele) {
+        long meilleur = Long.MAX_VALUE;
+        long retenue = 0;
+        int objets = 0;
+        for (int i = 0; i < CHARGEMENTS; i++) {
+            long avant = memoireUtilisee();
+            long debut = System.nanoTime();
+            Resource resource = new ResourceSetImpl().getResource(URI.createFileURI(modele), true);
+            long duree = System.nanoTime() - debut;
+            if (i > 0) {
+                meilleur = Math.min(meilleur, duree);
+            }
+            // la ressource reste atteignable jusqu'au comptage
+            retenue = memoireUtilisee() - avant;
+            objets = 0;
+            for (TreeIterator<EObject> it = resource.getAllContents(); it.hasNext(); it.next()) {
+                objets++;
+            }
+        }
+        System.out.println(modele + " : " + objets + " objets, " + new File(modele).length() / 1024
+            + " Ko, chargé en " + meilleur / 1_000_000 + " ms, "
+            + retenue / (1 << 20) + " Mo retenus");
+    }
+
+    // Tas occupé après ramasse-miettes
+    private static long memoireUtilisee() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static void convertir(String entree, String sortie) throws IOException {
+        ResourceSet resSet = new ResourceSetImpl();
+
+        long debut = System.nanoTime();
+        Resource source = resSet.getResource(URI.createFileURI(entree), true);
+        long charge = System.nanoTime();
+
+        // les objets passent d'une ressource à l'autre : pas de copie
+        Resource cible = resSet.createResource(URI.createFileURI(sortie));
+        if (cible == null) {
+            throw new IllegalArgumentException("Extension inconnue : " + sortie);
+        }
+        cible.getContents().addAll(source.getContents());
+        cible.save(null);
+        long fin = System.nanoTime();
+
+        System.out.println(entree + " (" + new File(entree).length() + " octets, chargé en "
+            + (charge - debut) / 1_000_000 + " ms) -> " + sortie + " ("
+            + new File(sortie).length() + " octets, écrit en " + (fin - charge) / 1_000_000 + " ms)");
+    }
+}
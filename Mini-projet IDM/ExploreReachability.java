@@ -0,0 +1,145 @@
+package fr.n7.petriNet1.simulation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+
+import fr.n7.persistence.BinaryResourceFactory;
+
+import petriNet1.PetriNet;
+import petriNet1.PetriNet1Package;
+import simplepdl.SimplepdlPackage;
+import simplepdl.topetrinet.SimplePDLToPetriNet;
+
+/**
+ * Explore les marquages accessibles d'un réseau de Petri (ou du réseau généré pour un
+ * process SimplePDL) et affiche le résultat des vérifications de blocage et de
+ * caractère borné.
+ *
+ * Usage : ExploreReachability [-j threads] [-m marquages max] [-b borne]
+ *         [--mem Mo] [--candidates Mo] [--visited Mo] [--spill répertoire] [--stop-deadlock]
+ *         modele.xmi
+ */
+public class ExploreReachability {
+
+    public static void main(String... args) throws IOException {
+        @SuppressWarnings("unused")
+        PetriNet1Package petriNetPackage = PetriNet1Package.eINSTANCE;
+        @SuppressWarnings("unused")
+        SimplepdlPackage simplepdlPackage = SimplepdlPackage.eINSTANCE;
+
+        Resource.Factory.Registry reg = Resource.Factory.Registry.INSTANCE;
+        Map<String, Object> m = reg.getExtensionToFactoryMap();
+        m.put("xmi", new XMIResourceFactoryImpl());
+        m.put(BinaryResourceFactory.EXTENSION, new BinaryResourceFactory());
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        String model = null;
+        Long maxStates = null;
+        Integer bound = null;
+        Long memoire = null;
+        Long candidats = null;
+        Long vus = null;
+        Path spill = null;
+        boolean stopDeadlock = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-j" -> threads = Integer.parseInt(args[++i]);
+                case "-m" -> maxStates = Long.parseLong(args[++i]);
+                case "-b" -> bound = Integer.parseInt(args[++i]);
+                case "--mem" -> memoire = Long.parseLong(args[++i]) << 20;
+                case "--candidates" -> candidats = Long.parseLong(args[++i]) << 20;
+                case "--visited" -> vus = Long.parseLong(args[++i]) << 20;
+                case "--spill" -> spill = Path.of(args[++i]);
+                case "--stop-deadlock" -> stopDeadlock = true;
+                default -> model = args[i];
+            }
+        }
+        if (model == null) {
+            System.err.println("Usage : ExploreReachability [-j threads] [-m marquages max] [-b borne] [--mem Mo] [--candidates Mo] [--visited Mo] [--spill répertoire] [--stop-deadlock] modele.xmi");
+            return;
+        }
+
+        ResourceSet resSet = new ResourceSetImpl();
+        Resource resource = resSet.getResource(URI.createURI(model), true);
+        EObject racine = resource.getContents().get(0);
+        PetriNet net = racine instanceof simplepdl.Process process
+            ? new SimplePDLToPetriNet().transform(process)
+            : (PetriNet) racine;
+
+        CompiledNet compiled = new NetCompiler(net).getCompiledNet();
+        System.out.println("Réseau " + net.getName() + " : " + compiled.getPlaceCount() + " place(s), "
+            + compiled.getTransitionCount() + " transition(s)");
+
+        ReachabilityExplorer explorer = new ReachabilityExplorer(compiled);
+        if (maxStates != null) {
+            explorer.setMaxStates(maxStates);
+        }
+        if (bound != null) {
+            explorer.setBound(bound);
+        }
+        if (memoire != null) {
+            explorer.setMemoryBudget(memoire);
+        }
+        if (candidats != null) {
+            explorer.setCandidateBudget(candidats);
+        }
+        if (vus != null) {
+            explorer.setVisitedBudget(vus);
+        }
+        if (spill != null) {
+            explorer.setSpillDirectory(spill);
+        }
+        explorer.setStopAtDeadlock(stopDeadlock);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        ReachabilityExplorer.Result resultat;
+        try {
+            resultat = explorer.explore(threads > 1 ? pool : null);
+        } finally {
+            pool.shutdown();
+        }
+
+        System.out.println(resultat.states() + " marquage(s), " + resultat.edges() + " arc(s), "
+            + resultat.levels() + " niveau(x) en " + resultat.nanos() / 1_000_000 + " ms"
+            + (resultat.complete() ? "" : " (exploration incomplète)"));
+        if (resultat.spilledBytes() > 0) {
+            System.out.println(resultat.spilledBytes() / 1024 + " Ko de niveaux et de marquages vus écrits sur disque");
+        }
+
+        switch (resultat.boundedness()) {
+            case BOUNDED -> {
+                int borne = 0;
+                for (int jetons : resultat.maxTokens()) {
+                    borne = Math.max(borne, jetons);
+                }
+                System.out.println("Réseau borné (" + borne + "-borné)");
+            }
+            case UNBOUNDED -> System.out.println("Réseau non borné : la transition "
+                + compiled.getTransitionName(resultat.witness()) + " peut être tirée sans fin");
+            case BOUND_EXCEEDED -> System.out.println("La place " + compiled.getPlaceName(resultat.witness())
+                + " dépasse la borne demandée");
+            case UNKNOWN -> System.out.println("Caractère borné inconnu");
+        }
+
+        if (resultat.deadlocks() == 0) {
+            System.out.println("Aucun blocage" + (resultat.complete() ? "" : " trouvé"));
+        } else {
+            StringBuilder marquage = new StringBuilder();
+            for (int p = 0; p < compiled.getPlaceCount(); p++) {
+                if (resultat.deadlock()[p] > 0) {
+                    marquage.append(' ').append(compiled.getPlaceName(p)).append('=').append(resultat.deadlock()[p]);
+                }
+            }
+            System.out.println(resultat.deadlocks() + " blocage(s), par exemple :" + marquage);
+        }
+    }
+}
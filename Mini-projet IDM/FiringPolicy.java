@@ -0,0 +1,45 @@
+package fr.n7.petriNet1.simulation;
+
+import java.util.SplittableRandom;
+
+/**
+ * Choix de la prochaine transition à tirer parmi les transitions sensibilisées.
+ */
+@FunctionalInterface
+public interface FiringPolicy {
+
+    /**
+     * Choisir une transition. N'est appelée que si au moins une transition est
+     * sensibilisée.
+     *
+     * @param simulator simulateur dans son état courant
+     * @return numéro d'une transition sensibilisée
+     */
+    int choose(Simulator simulator);
+
+    /**
+     * Tirage uniforme parmi les transitions sensibilisées.
+     *
+     * @param random générateur (une exécution reproductible par graine)
+     * @return la politique
+     */
+    static FiringPolicy random(SplittableRandom random) {
+        return s -> s.getEnabled(random.nextInt(s.getEnabledCount()));
+    }
+
+    /**
+     * Transition sensibilisée de plus petit numéro, pour une exécution déterministe
+     * (mise au point pas à pas). Coûte un parcours des transitions sensibilisées.
+     *
+     * @return la politique
+     */
+    static FiringPolicy first() {
+        return s -> {
+            int choix = s.getEnabled(0);
+            for (int i = 1; i < s.getEnabledCount(); i++) {
+                choix = Math.min(choix, s.getEnabled(i));
+            }
+            return choix;
+        };
+    }
+}
@@ -0,0 +1,184 @@
+package fr.n7.petriNet1.simulation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Niveau de l'exploration en largeur : marquages codés à explorer.
+ *
+ * Les marquages sont gardés en mémoire tant qu'ils tiennent dans le budget (ou que
+ * le tas n'est pas presque plein) ; au-delà, tout le niveau est déversé dans un
+ * fichier temporaire et la suite y est écrite directement. Le niveau est relu une
+ * seule fois, par lots, puis le fichier est supprimé.
+ */
+final class Frontier implements Closeable {
+
+    // Coût mémoire d'un marquage en plus de ses octets : en-tête du tableau et référence
+    static final int SURCOUT = 24;
+
+    private final long budget;
+    private final Path repertoire;
+
+    private List<byte[]> memoire = new ArrayList<>();
+    private long octets;
+    private long taille;
+
+    private Path fichier;
+    private DataOutputStream sortie;
+    private long deverses;
+
+    /**
+     * @param budget octets au-delà desquels le niveau est déversé sur disque
+     * @param repertoire répertoire des fichiers temporaires
+     */
+    Frontier(long budget, Path repertoire) {
+        this.budget = budget;
+        this.repertoire = repertoire;
+    }
+
+    synchronized void addAll(List<byte[]> codes) throws IOException {
+        this.taille += codes.size();
+        if (this.sortie == null) {
+            long ajout = 0;
+            for (byte[] code : codes) {
+                ajout += code.length + SURCOUT;
+            }
+            if (this.octets + ajout <= this.budget && !memoireBasse()) {
+                this.memoire.addAll(codes);
+                this.octets += ajout;
+                return;
+            }
+            this.deverser();
+        }
+        for (byte[] code : codes) {
+            this.ecrire(code);
+        }
+    }
+
+    synchronized long size() {
+        return this.taille;
+    }
+
+    // Octets écrits sur disque pour ce niveau
+    synchronized long getSpilledBytes() {
+        return this.deverses;
+    }
+
+    /**
+     * Relire le niveau par lots (une seule fois).
+     *
+     * @param tailleLot nombre de marquages par lot
+     * @param lot traitement d'un lot
+     */
+    void forEachBatch(int tailleLot, Consumer<List<byte[]>> lot) throws IOException {
+        if (this.sortie == null) {
+            List<byte[]> codes = this.memoire;
+            this.memoire = null;
+            for (int i = 0; i < codes.size(); i += tailleLot) {
+                lot.accept(codes.subList(i, Math.min(codes.size(), i + tailleLot)));
+            }
+            return;
+        }
+
+        this.sortie.close();
+        this.sortie = null;
+        try (DataInputStream entree = new DataInputStream(new BufferedInputStream(Files.newInputStream(this.fichier), 1 << 16))) {
+            List<byte[]> codes = new ArrayList<>(tailleLot);
+            byte[] code;
+            while ((code = lire(entree)) != null) {
+                codes.add(code);
+                if (codes.size() == tailleLot) {
+                    lot.accept(codes);
+                    codes = new ArrayList<>(tailleLot);
+                }
+            }
+            if (!codes.isEmpty()) {
+                lot.accept(codes);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.sortie != null) {
+            this.sortie.close();
+            this.sortie = null;
+        }
+        if (this.fichier != null) {
+            Files.deleteIfExists(this.fichier);
+        }
+        this.memoire = null;
+    }
+
+    // Passer sur disque : ce qui était en mémoire est écrit en premier
+    private void deverser() throws IOException {
+        this.fichier = Files.createTempFile(this.repertoire, "frontiere", ".bin");
+        this.fichier.toFile().deleteOnExit();
+        this.sortie = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(this.fichier), 1 << 16));
+        for (byte[] code : this.memoire) {
+            this.ecrire(code);
+        }
+        this.memoire = null;
+        this.octets = 0;
+    }
+
+    private void ecrire(byte[] code) throws IOException {
+        this.deverses += ecrire(this.sortie, code);
+    }
+
+    // Un marquage sur disque : sa longueur (varint) puis ses octets ; rend les octets écrits
+    static int ecrire(DataOutputStream sortie, byte[] code) throws IOException {
+        int longueur = code.length;
+        int ecrits = 1 + code.length;
+        while ((longueur & ~0x7F) != 0) {
+            sortie.write((longueur & 0x7F) | 0x80);
+            longueur >>>= 7;
+            ecrits++;
+        }
+        sortie.write(longueur);
+        sortie.write(code);
+        return ecrits;
+    }
+
+    // Marquage suivant du fichier, null à la fin
+    static byte[] lire(DataInputStream entree) throws IOException {
+        int longueur;
+        try {
+            longueur = lireVarint(entree);
+        } catch (EOFException e) {
+            return null;
+        }
+        byte[] code = new byte[longueur];
+        entree.readFully(code);
+        return code;
+    }
+
+    private static int lireVarint(DataInputStream entree) throws IOException {
+        int valeur = 0;
+        int decalage = 0;
+        int b;
+        do {
+            b = entree.readUnsignedByte();
+            valeur |= (b & 0x7F) << decalage;
+            decalage += 7;
+        } while ((b & 0x80) != 0);
+        return valeur;
+    }
+
+    // Moins d'un huitième du tas disponible (marquages déjà vus compris)
+    static boolean memoireBasse() {
+        Runtime rt = Runtime.getRuntime();
+        long utilise = rt.totalMemory() - rt.freeMemory();
+        return rt.maxMemory() - utilise < rt.maxMemory() / 8;
+    }
+}
@@ -0,0 +1,298 @@
+package fr.n7.petriNet1.validation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+
+import petriNet1.Arc;
+import petriNet1.Node;
+import petriNet1.PetriNet;
+import petriNet1.PetriNet1Package;
+import petriNet1.Place;
+import petriNet1.Transition;
+
+/**
+ * Validation incrémentale des réseaux de Petri d'une ressource, pour un éditeur qui
+ * modifie le modèle et veut le résultat à jour après chaque modification.
+ *
+ * Le validateur s'attache à la ressource comme EContentAdapter et reçoit les
+ * notifications de tous les objets qu'elle contient. Chaque modification marque comme
+ * "sales" les seuls éléments dont une contrainte peut avoir changé : l'élément modifié
+ * et, pour un renommage, les noeuds qui portaient l'ancien ou le nouveau nom. Les échecs
+ * de chaque élément sont gardés en cache, et getResult() ne revérifie que les éléments
+ * sales puis reconstruit le ValidationResult à partir des échecs en cache.
+ *
+ * Le résultat contient les mêmes erreurs qu'une validation complète ; après des
+ * modifications, leur ordre peut différer de celui du parcours du réseau.
+ */
+public class IncrementalPetriNetValidator extends EContentAdapter {
+
+    /**
+     * Places et transitions d'un réseau rangées par nom. Chaque liste est dans l'ordre
+     * du réseau : le premier noeud porte le nom, les suivants sont des doublons.
+     */
+    private static class Noms {
+        final Map<String, List<Node>> places = new HashMap<>();
+        final Map<String, List<Node>> transitions = new HashMap<>();
+
+        Map<String, List<Node>> pour(Node node) {
+            return node instanceof Place ? this.places : this.transitions;
+        }
+    }
+
+    private final Resource resource;
+    private final PetriNetValidator validator = new PetriNetValidator();
+
+    private final Map<PetriNet, Noms> noms = new IdentityHashMap<>();
+    // Nom sous lequel chaque noeud est rangé (utile quand il vient d'être renommé)
+    private final Map<Node, String> rangement = new IdentityHashMap<>();
+
+    // Échecs en cache, seulement pour les éléments qui en ont
+    private final Map<EObject, List<PetriNetValidator.Echec>> echecs = new LinkedHashMap<>();
+    // Éléments à revérifier au prochain getResult()
+    private final Set<EObject> sales = new LinkedHashSet<>();
+    private ValidationResult result = null;
+
+    /**
+     * Construire le validateur et l'attacher à la ressource. Tous les éléments sont
+     * vérifiés au premier appel de getResult().
+     *
+     * @param resource ressource contenant les réseaux à valider
+     */
+    public IncrementalPetriNetValidator(Resource resource) {
+        this.resource = resource;
+        for (EObject object : resource.getContents()) {
+            if (object instanceof PetriNet) {
+                this.suivre((PetriNet) object);
+            }
+        }
+        resource.eAdapters().add(this);
+    }
+
+    /**
+     * Résultat de validation à jour des modifications reçues depuis le dernier appel.
+     *
+     * @return un objet contenant les résultats de la validation
+     */
+    public ValidationResult getResult() {
+        if (this.result != null && this.sales.isEmpty()) {
+            return this.result;
+        }
+
+        for (EObject element : this.sales) {
+            List<PetriNetValidator.Echec> e = this.estSuivi(element)
+                ? this.validator.verifier(element, this.doublon(element))
+                : List.of();
+            if (e.isEmpty()) {
+                this.echecs.remove(element);
+            } else {
+                this.echecs.put(element, e);
+            }
+        }
+        this.sales.clear();
+
+        // ValidationResult ne permet pas de retirer une erreur : il est reconstruit à
+        // partir des échecs en cache, en un temps proportionnel au nombre d'erreurs
+        this.result = new ValidationResult();
+        for (List<PetriNetValidator.Echec> e : this.echecs.values()) {
+            for (PetriNetValidator.Echec echec : e) {
+                this.result.recordIfFailed(false, echec.object(), echec.message());
+            }
+        }
+        return this.result;
+    }
+
+    /**
+     * Détacher le validateur de la ressource.
+     */
+    public void dispose() {
+        this.resource.eAdapters().remove(this);
+    }
+
+    @Override
+    public void notifyChanged(Notification notification) {
+        // EContentAdapter s'attache aux objets ajoutés et se détache des objets retirés
+        super.notifyChanged(notification);
+        if (notification.isTouch()) {
+            return;
+        }
+
+        Object notifier = notification.getNotifier();
+        Object feature = notification.getFeature();
+
+        if (notifier instanceof Resource) {
+            if (notification.getFeatureID(Resource.class) == Resource.RESOURCE__CONTENTS) {
+                for (Object o : anciens(notification)) {
+                    if (o instanceof PetriNet) {
+                        this.abandonner((PetriNet) o);
+                    }
+                }
+                for (Object o : nouveaux(notification)) {
+                    if (o instanceof PetriNet) {
+                        this.suivre((PetriNet) o);
+                    }
+                }
+            }
+        } else if (feature == PetriNet1Package.Literals.PETRI_NET__PETRINET_ELEMENTS) {
+            PetriNet net = (PetriNet) notifier;
+            if (!this.noms.containsKey(net)) {
+                return;
+            }
+            for (Object o : anciens(notification)) {
+                this.deranger(net, (Node) o);
+                this.oublier((Node) o);
+            }
+            for (Object o : nouveaux(notification)) {
+                this.ranger(net, (Node) o, true);
+            }
+            if (notification.getEventType() == Notification.MOVE) {
+                // la position change : le premier de la liste des homonymes aussi
+                Node node = (Node) notification.getNewValue();
+                this.deranger(net, node);
+                this.ranger(net, node, true);
+            }
+        } else if (feature == PetriNet1Package.Literals.PETRI_NET__ARCS) {
+            for (Object o : anciens(notification)) {
+                this.oublier((Arc) o);
+            }
+            for (Object o : nouveaux(notification)) {
+                this.sales.add((Arc) o);
+            }
+        } else if (feature == PetriNet1Package.Literals.PLACE__NAME
+                || feature == PetriNet1Package.Literals.TRANSITION__NAME) {
+            // renommage : les homonymes de l'ancien et du nouveau nom sont à revoir
+            Node node = (Node) notifier;
+            if (this.rangement.containsKey(node)) {
+                PetriNet net = (PetriNet) node.eContainer();
+                this.deranger(net, node);
+                this.ranger(net, node, true);
+            }
+        } else if (notifier instanceof Place || notifier instanceof Arc) {
+            // jetons, poids, source ou cible
+            this.sales.add((EObject) notifier);
+        }
+    }
+
+    private void suivre(PetriNet net) {
+        this.noms.put(net, new Noms());
+        for (Node node : net.getPetrinetElements()) {
+            this.ranger(net, node, false);
+        }
+        this.sales.addAll(net.getArcs());
+    }
+
+    private void abandonner(PetriNet net) {
+        for (Node node : net.getPetrinetElements()) {
+            this.rangement.remove(node);
+            this.oublier(node);
+        }
+        for (Arc arc : net.getArcs()) {
+            this.oublier(arc);
+        }
+        this.noms.remove(net);
+    }
+
+    /**
+     * Ranger un noeud sous son nom et marquer ses homonymes comme sales.
+     *
+     * @param trier vrai s'il faut replacer le noeud parmi ses homonymes selon sa
+     *        position dans le réseau (faux pendant un parcours du réseau dans l'ordre)
+     */
+    private void ranger(PetriNet net, Node node, boolean trier) {
+        String nom = nom(node);
+        this.rangement.put(node, nom);
+        List<Node> homonymes = this.noms.get(net).pour(node).computeIfAbsent(nom, k -> new ArrayList<>(1));
+        homonymes.add(node);
+        if (trier && homonymes.size() > 1) {
+            List<Node> elements = net.getPetrinetElements();
+            homonymes.sort(Comparator.comparingInt(elements::indexOf));
+        }
+        this.sales.addAll(homonymes);
+    }
+
+    private void deranger(PetriNet net, Node node) {
+        String nom = this.rangement.remove(node);
+        Map<String, List<Node>> parNom = this.noms.get(net).pour(node);
+        List<Node> homonymes = parNom.get(nom);
+        if (homonymes == null) {
+            return;
+        }
+        homonymes.remove(node);
+        if (homonymes.isEmpty()) {
+            parNom.remove(nom);
+        } else {
+            this.sales.addAll(homonymes);
+        }
+    }
+
+    private void oublier(EObject element) {
+        this.echecs.remove(element);
+        this.sales.add(element);
+    }
+
+    private boolean estSuivi(EObject element) {
+        if (element instanceof Node) {
+            return this.rangement.containsKey(element);
+        }
+        return element.eContainer() instanceof PetriNet && this.noms.containsKey(element.eContainer());
+    }
+
+    /**
+     * Le noeud sous la forme attendue par PetriNetValidator.verifier : un ensemble qui
+     * le contient s'il n'est pas le premier à porter son nom.
+     */
+    private Set<Node> doublon(EObject element) {
+        if (!(element instanceof Node)) {
+            return Collections.emptySet();
+        }
+        Node node = (Node) element;
+        List<Node> homonymes = this.noms.get((PetriNet) node.eContainer()).pour(node).get(this.rangement.get(node));
+        return homonymes.indexOf(node) > 0 ? Collections.singleton(node) : Collections.emptySet();
+    }
+
+    private static String nom(Node node) {
+        if (node instanceof Place) {
+            return ((Place) node).getName();
+        }
+        if (node instanceof Transition) {
+            return ((Transition) node).getName();
+        }
+        return null;
+    }
+
+    // objets retirés : seuls SET, UNSET, REMOVE et REMOVE_MANY en ont
+    private static List<?> anciens(Notification notification) {
+        return switch (notification.getEventType()) {
+            case Notification.SET, Notification.UNSET, Notification.REMOVE, Notification.REMOVE_MANY -> valeurs(notification.getOldValue());
+            default -> List.of();
+        };
+    }
+
+    // objets ajoutés : pour REMOVE_MANY la nouvelle valeur est le tableau des
+    // positions retirées (int[]), pour MOVE l'objet déplacé
+    private static List<?> nouveaux(Notification notification) {
+        return switch (notification.getEventType()) {
+            case Notification.SET, Notification.ADD, Notification.ADD_MANY -> valeurs(notification.getNewValue());
+            default -> List.of();
+        };
+    }
+
+    private static List<?> valeurs(Object valeur) {
+        if (valeur instanceof List) {
+            return (List<?>) valeur;
+        }
+        return valeur == null ? List.of() : List.of(valeur);
+    }
+}
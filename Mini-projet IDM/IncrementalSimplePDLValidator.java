@@ -0,0 +1,398 @@
+package simplepdl.validation;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.ECrossReferenceAdapter;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+
+import simplepdl.Process;
+import simplepdl.ProcessElement;
+import simplepdl.Ressource;
+import simplepdl.SimplepdlPackage;
+import simplepdl.WorkDefinition;
+import simplepdl.WorkSequence;
+import simplepdl.validation.SimplePDLValidator.Echec;
+import simplepdl.validation.SimplePDLValidator.ProcessIndex;
+
+/**
+ * Validation incrémentale des process d'une ressource, pour un éditeur qui modifie le
+ * modèle et veut le résultat à jour après chaque modification.
+ *
+ * Le validateur s'attache à la ressource comme EContentAdapter et reçoit les
+ * notifications de tous les objets qu'elle contient. Il tient à jour l'index de chaque
+ * process (activités par nom, dépendances par clé) et les ressources par nom. Une
+ * modification marque comme "sales" les seuls éléments dont une contrainte peut avoir
+ * changé : l'élément modifié, les éléments qui partageaient ou partagent désormais son
+ * nom ou sa clé, et ceux dont le message d'erreur cite son nom (dépendances d'une
+ * activité, besoins d'une ressource). Les échecs de chaque élément sont gardés en cache
+ * et getResult() ne revérifie que les éléments sales.
+ *
+ * Le résultat contient les mêmes erreurs qu'une validation complète ; après des
+ * modifications, leur ordre peut différer de celui du parcours du process.
+ */
+public class IncrementalSimplePDLValidator extends EContentAdapter {
+	/**
+	 * État suivi pour un process : son index et ses ressources par nom, chaque liste
+	 * de ressources étant dans l'ordre du process (la première porte le nom, les
+	 * suivantes sont des doublons).
+	 */
+	private static class Suivi {
+		final ProcessIndex index = new ProcessIndex();
+		final Map<String, List<Ressource>> ressources = new HashMap<>();
+	}
+
+	/**
+	 * Ressource validée.
+	 */
+	private final Resource resource;
+
+	/**
+	 * Validateur utilisé pour vérifier un élément à la fois.
+	 */
+	private final SimplePDLValidator validator = new SimplePDLValidator();
+
+	/**
+	 * Références inverses, pour retrouver les besoins qui citent une ressource.
+	 */
+	private final ECrossReferenceAdapter references = new ECrossReferenceAdapter();
+
+	/**
+	 * Process suivis.
+	 */
+	private final Map<Process, Suivi> suivis = new IdentityHashMap<>();
+
+	/**
+	 * Clé sous laquelle chaque activité, dépendance complète ou ressource est rangée
+	 * (l'ancienne valeur n'est plus lisible sur l'objet après sa modification).
+	 */
+	private final Map<EObject, Object> rangement = new IdentityHashMap<>();
+
+	/**
+	 * Échecs en cache, seulement pour les éléments qui en ont.
+	 */
+	private final Map<EObject, List<Echec>> echecs = new LinkedHashMap<>();
+
+	/**
+	 * Éléments à revérifier au prochain appel de getResult().
+	 */
+	private final Set<EObject> sales = new LinkedHashSet<>();
+
+	/**
+	 * Dernier résultat construit (null s'il n'a jamais été demandé).
+	 */
+	private ValidationResult result = null;
+
+	/**
+	 * Construire le validateur et l'attacher à la ressource. Tous les éléments sont
+	 * vérifiés au premier appel de getResult().
+	 * @param resource ressource à valider
+	 */
+	public IncrementalSimplePDLValidator(Resource resource) {
+		this.resource = resource;
+		for (EObject object : resource.getContents()) {
+			if (object instanceof Process process) {
+				this.suivre(process);
+			}
+		}
+		// les références inverses doivent être à jour avant que ce validateur
+		// ne traite une notification
+		resource.eAdapters().add(this.references);
+		resource.eAdapters().add(this);
+	}
+
+	/**
+	 * Résultat de validation à jour des modifications reçues depuis le dernier appel.
+	 * @return résultat de validation
+	 */
+	public ValidationResult getResult() {
+		if (this.result != null && this.sales.isEmpty()) {
+			return this.result;
+		}
+
+		for (EObject element : this.sales) {
+			List<Echec> e = this.estSuivi(element)
+					? this.validator.verifier(element, this.suiviDe(element).index, this.estDoublon(element))
+					: List.of();
+			if (e.isEmpty()) {
+				this.echecs.remove(element);
+			} else {
+				this.echecs.put(element, e);
+			}
+		}
+		this.sales.clear();
+
+		// ValidationResult ne permet pas de retirer une erreur : il est reconstruit à
+		// partir des échecs en cache, en un temps proportionnel au nombre d'erreurs
+		this.result = new ValidationResult();
+		for (List<Echec> e : this.echecs.values()) {
+			for (Echec echec : e) {
+				this.result.recordIfFailed(false, echec.object(), echec.message());
+			}
+		}
+		return this.result;
+	}
+
+	/**
+	 * Détacher le validateur de la ressource.
+	 */
+	public void dispose() {
+		this.resource.eAdapters().remove(this);
+		this.resource.eAdapters().remove(this.references);
+	}
+
+	/**
+	 * Marquer comme sales les éléments touchés par une modification.
+	 * @param notification modification reçue d'un objet de la ressource
+	 */
+	@Override
+	public void notifyChanged(Notification notification) {
+		// EContentAdapter s'attache aux objets ajoutés et se détache des objets retirés
+		super.notifyChanged(notification);
+		if (notification.isTouch()) {
+			return;
+		}
+
+		Object notifier = notification.getNotifier();
+		Object feature = notification.getFeature();
+
+		if (notifier instanceof Resource) {
+			if (notification.getFeatureID(Resource.class) == Resource.RESOURCE__CONTENTS) {
+				for (Object o : anciens(notification)) {
+					if (o instanceof Process process) {
+						this.abandonner(process);
+					}
+				}
+				for (Object o : nouveaux(notification)) {
+					if (o instanceof Process process) {
+						this.suivre(process);
+					}
+				}
+			}
+		} else if (feature == SimplepdlPackage.Literals.PROCESS__PROCESS_ELEMENTS) {
+			Suivi suivi = this.suivis.get(notifier);
+			if (suivi == null) {
+				return;
+			}
+			for (Object o : anciens(notification)) {
+				this.deranger(suivi, (ProcessElement) o);
+				this.oublier((ProcessElement) o);
+			}
+			for (Object o : nouveaux(notification)) {
+				this.ranger(suivi, (ProcessElement) o, true);
+			}
+			// seule la position d'une ressource parmi ses homonymes compte
+			if (notification.getEventType() == Notification.MOVE
+					&& notification.getNewValue() instanceof Ressource res) {
+				this.deranger(suivi, res);
+				this.ranger(suivi, res, true);
+			}
+		} else if (feature == SimplepdlPackage.Literals.PROCESS__NAME) {
+			// le nom du process figure dans le message des ressources en doublon
+			Process process = (Process) notifier;
+			this.sales.add(process);
+			Suivi suivi = this.suivis.get(process);
+			if (suivi != null) {
+				for (List<Ressource> homonymes : suivi.ressources.values()) {
+					this.sales.addAll(homonymes.subList(1, homonymes.size()));
+				}
+			}
+		} else if (feature == SimplepdlPackage.Literals.WORK_DEFINITION__NAME
+				|| feature == SimplepdlPackage.Literals.WORK_SEQUENCE__LINK_TYPE
+				|| feature == SimplepdlPackage.Literals.WORK_SEQUENCE__PREDECESSOR
+				|| feature == SimplepdlPackage.Literals.WORK_SEQUENCE__SUCCESSOR
+				|| feature == SimplepdlPackage.Literals.RESSOURCE__NAME) {
+			// nouveau nom ou nouvelle clé : l'élément change de voisins
+			ProcessElement pe = (ProcessElement) notifier;
+			Suivi suivi = this.suiviDe(pe);
+			if (suivi != null) {
+				this.deranger(suivi, pe);
+				this.ranger(suivi, pe, true);
+			}
+			// messages qui citent le nom modifié
+			if (pe instanceof WorkDefinition wd) {
+				this.sales.addAll(wd.getLinksToPredecessors());
+				this.sales.addAll(wd.getLinksToSuccessors());
+			} else if (pe instanceof Ressource res) {
+				this.marquerBesoins(res);
+			}
+		} else if (feature == SimplepdlPackage.Literals.RESSOURCE__NUMBER) {
+			this.sales.add((Ressource) notifier);
+			this.marquerBesoins((Ressource) notifier);
+		} else if (notifier instanceof EObject object) {
+			// texte d'une guidance, besoins d'une activité, ...
+			this.sales.add(object);
+			if (object.eContainer() instanceof WorkDefinition wd) {
+				this.sales.add(wd);
+			}
+		}
+	}
+
+	/**
+	 * Commencer à suivre un process : tous ses éléments sont à vérifier.
+	 * @param process process ajouté à la ressource
+	 */
+	private void suivre(Process process) {
+		Suivi suivi = new Suivi();
+		this.suivis.put(process, suivi);
+		this.sales.add(process);
+		for (ProcessElement pe : process.getProcessElements()) {
+			this.ranger(suivi, pe, false);
+		}
+	}
+
+	/**
+	 * Oublier un process retiré de la ressource, et les échecs de ses éléments.
+	 * @param process process retiré
+	 */
+	private void abandonner(Process process) {
+		for (ProcessElement pe : process.getProcessElements()) {
+			this.rangement.remove(pe);
+			this.oublier(pe);
+		}
+		this.oublier(process);
+		this.suivis.remove(process);
+	}
+
+	/**
+	 * Ranger un élément sous son nom ou sa clé, et le marquer comme sale avec les
+	 * éléments rangés sous la même clé.
+	 * @param suivi état du process qui contient l'élément
+	 * @param pe élément à ranger
+	 * @param trier vrai s'il faut replacer une ressource parmi ses homonymes selon sa
+	 * position dans le process (faux pendant un parcours du process dans l'ordre)
+	 */
+	private void ranger(Suivi suivi, ProcessElement pe, boolean trier) {
+		this.sales.add(pe);
+		if (pe instanceof WorkDefinition wd) {
+			this.rangement.put(wd, wd.getName());
+			this.sales.addAll(ProcessIndex.ajouter(suivi.index.workDefinitionNames, wd.getName(), wd));
+		} else if (pe instanceof WorkSequence ws && ws.getPredecessor() != null && ws.getSuccessor() != null) {
+			SimplePDLValidator.Dependance cle = ProcessIndex.cle(ws);
+			this.rangement.put(ws, cle);
+			this.sales.addAll(ProcessIndex.ajouter(suivi.index.dependances, cle, ws));
+		} else if (pe instanceof Ressource res) {
+			this.rangement.put(res, res.getName());
+			List<Ressource> homonymes = ProcessIndex.ajouter(suivi.ressources, res.getName(), res);
+			if (trier && homonymes.size() > 1) {
+				List<ProcessElement> elements = ((Process) res.eContainer()).getProcessElements();
+				homonymes.sort(Comparator.comparingInt(elements::indexOf));
+			}
+			this.sales.addAll(homonymes);
+		}
+	}
+
+	/**
+	 * Retirer un élément de sa clé et marquer comme sales les éléments qui y restent.
+	 * @param suivi état du process qui contenait l'élément
+	 * @param pe élément à retirer
+	 */
+	private void deranger(Suivi suivi, ProcessElement pe) {
+		if (!this.rangement.containsKey(pe)) {
+			return;
+		}
+		Object cle = this.rangement.remove(pe);
+		if (pe instanceof WorkDefinition wd) {
+			this.sales.addAll(ProcessIndex.retirer(suivi.index.workDefinitionNames, (String) cle, wd));
+		} else if (pe instanceof WorkSequence ws) {
+			this.sales.addAll(ProcessIndex.retirer(suivi.index.dependances, (SimplePDLValidator.Dependance) cle, ws));
+		} else if (pe instanceof Ressource res) {
+			this.sales.addAll(ProcessIndex.retirer(suivi.ressources, (String) cle, res));
+		}
+	}
+
+	/**
+	 * Marquer les besoins qui citent une ressource, ainsi que les activités qui les
+	 * contiennent (leur message cite le nom de la ressource).
+	 * @param res ressource modifiée
+	 */
+	private void marquerBesoins(Ressource res) {
+		for (EStructuralFeature.Setting setting : this.references.getInverseReferences(res)) {
+			if (setting.getEStructuralFeature() == SimplepdlPackage.Literals.RESSOURCE_REQUIREMENT__RESSOURCE) {
+				EObject besoin = setting.getEObject();
+				this.sales.add(besoin);
+				if (besoin.eContainer() instanceof WorkDefinition wd) {
+					this.sales.add(wd);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Retirer les échecs d'un élément qui ne fait plus partie d'un process suivi.
+	 * @param element élément retiré
+	 */
+	private void oublier(EObject element) {
+		this.echecs.remove(element);
+		this.sales.add(element);
+	}
+
+	/**
+	 * État du process suivi qui contient un élément (ou du process lui-même).
+	 * @param element process ou élément visité
+	 * @return état du process, null si le process n'est pas suivi
+	 */
+	private Suivi suiviDe(EObject element) {
+		return this.suivis.get(element instanceof Process ? element : element.eContainer());
+	}
+
+	/**
+	 * Indique si un élément appartient encore à un process suivi.
+	 * Les besoins rangés dans une activité ne sont pas visités par la validation
+	 * complète et ne le sont pas non plus ici.
+	 * @param element élément sale
+	 * @return vrai si l'élément doit être vérifié
+	 */
+	private boolean estSuivi(EObject element) {
+		return element instanceof Process
+				? this.suivis.containsKey(element)
+				: element.eContainer() instanceof Process && this.suivis.containsKey(element.eContainer());
+	}
+
+	/**
+	 * Indique si une ressource porte un nom déjà pris plus haut dans son process.
+	 * @param element élément sale
+	 * @return vrai pour une ressource en doublon
+	 */
+	private boolean estDoublon(EObject element) {
+		if (!(element instanceof Ressource res)) {
+			return false;
+		}
+		List<Ressource> homonymes = this.suiviDe(res).ressources.get(this.rangement.get(res));
+		return homonymes != null && homonymes.indexOf(res) > 0;
+	}
+
+	// objets retirés : seuls SET, UNSET, REMOVE et REMOVE_MANY en ont
+	private static List<?> anciens(Notification notification) {
+		return switch (notification.getEventType()) {
+			case Notification.SET, Notification.UNSET, Notification.REMOVE, Notification.REMOVE_MANY -> valeurs(notification.getOldValue());
+			default -> List.of();
+		};
+	}
+
+	// objets ajoutés : pour REMOVE_MANY la nouvelle valeur est le tableau des
+	// positions retirées (int[]), pour MOVE l'objet déplacé
+	private static List<?> nouveaux(Notification notification) {
+		return switch (notification.getEventType()) {
+			case Notification.SET, Notification.ADD, Notification.ADD_MANY -> valeurs(notification.getNewValue());
+			default -> List.of();
+		};
+	}
+
+	private static List<?> valeurs(Object valeur) {
+		if (valeur instanceof List<?> liste) {
+			return liste;
+		}
+		return valeur == null ? List.of() : List.of(valeur);
+	}
+}
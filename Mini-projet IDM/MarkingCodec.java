@@ -0,0 +1,102 @@
+package fr.n7.petriNet1.simulation;
+
+/**
+ * Codage compact d'un marquage : pour chaque place non vide, par numéro croissant,
+ * l'écart avec la place non vide précédente puis le nombre de jetons, chacun en
+ * varint (7 bits par octet, bit de poids fort à 1 s'il reste des octets).
+ *
+ * Les marquages des réseaux générés depuis SimplePDL sont très creux (quelques
+ * jetons sur beaucoup de places) et tiennent en quelques octets ; deux marquages
+ * égaux ont toujours le même codage.
+ */
+public final class MarkingCodec {
+
+    private MarkingCodec() {}
+
+    /**
+     * @param marking marquage, une case par place
+     * @return codage du marquage
+     */
+    public static byte[] encode(int[] marking) {
+        int[] nonVides = new int[marking.length];
+        int n = 0;
+        for (int p = 0; p < marking.length; p++) {
+            if (marking[p] != 0) {
+                nonVides[n++] = p;
+            }
+        }
+        byte[] tampon = new byte[n * 10];
+        return java.util.Arrays.copyOf(tampon, encode(marking, nonVides, n, tampon));
+    }
+
+    /**
+     * @param code codage d'un marquage
+     * @param places nombre de places du réseau
+     * @return le marquage
+     */
+    public static int[] decode(byte[] code, int places) {
+        int[] marking = new int[places];
+        decode(code, marking, new int[places]);
+        return marking;
+    }
+
+    /**
+     * Coder les places nonVides[0 .. n[ (numéros croissants, jetons non nuls).
+     *
+     * @param out tampon d'au moins 10 * n octets
+     * @return nombre d'octets écrits
+     */
+    static int encode(int[] marking, int[] nonVides, int n, byte[] out) {
+        int pos = 0;
+        int precedente = -1;
+        for (int i = 0; i < n; i++) {
+            int p = nonVides[i];
+            pos = ecrire(out, pos, p - precedente - 1);
+            pos = ecrire(out, pos, marking[p]);
+            precedente = p;
+        }
+        return pos;
+    }
+
+    /**
+     * Décoder dans marking, qui doit être à zéro : seules les places non vides sont
+     * écrites, et leurs numéros sont rangés par ordre croissant dans nonVides.
+     *
+     * @return nombre de places non vides
+     */
+    static int decode(byte[] code, int[] marking, int[] nonVides) {
+        int n = 0;
+        int p = -1;
+        int pos = 0;
+        while (pos < code.length) {
+            int ecart = 0;
+            int decalage = 0;
+            byte b;
+            do {
+                b = code[pos++];
+                ecart |= (b & 0x7F) << decalage;
+                decalage += 7;
+            } while (b < 0);
+            int jetons = 0;
+            decalage = 0;
+            do {
+                b = code[pos++];
+                jetons |= (b & 0x7F) << decalage;
+                decalage += 7;
+            } while (b < 0);
+            p += ecart + 1;
+            marking[p] = jetons;
+            nonVides[n++] = p;
+        }
+        return n;
+    }
+
+    private static int ecrire(byte[] out, int pos, int valeur) {
+        while ((valeur & ~0x7F) != 0) {
+            out[pos++] = (byte) ((valeur & 0x7F) | 0x80);
+            valeur >>>= 7;
+        }
+        out[pos++] = (byte) valeur;
+        return pos;
+    }
+}
@@ -0,0 +1,141 @@
+package fr.n7.petriNet1.simulation;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Lots d'exécutions aléatoires d'un même réseau, répartis sur un pool de threads.
+ *
+ * Chaque exécution part du marquage initial et tire des transitions au hasard
+ * (FiringPolicy.random) jusqu'à un blocage ou jusqu'à maxFirings tirs. La graine de
+ * l'exécution i ne dépend que de la graine du lot et de i : le résultat est le même
+ * quel que soit le nombre de threads.
+ */
+public class MonteCarlo {
+
+    // Nombre d'exécutions en dessous duquel un lot n'est plus découpé
+    private static final int TAILLE_LOT = 16;
+
+    /**
+     * Statistiques d'un lot d'exécutions.
+     *
+     * @param runs nombre d'exécutions
+     * @param deadlocks exécutions terminées par un blocage
+     * @param firings nombre total de tirs
+     * @param meanMarking marquage final moyen de chaque place
+     * @param maxMarking marquage final maximum de chaque place
+     * @param nanos durée du lot
+     */
+    public record Statistics(int runs, int deadlocks, long firings, double[] meanMarking, int[] maxMarking, long nanos) {
+
+        public double firingsPerSecond() {
+            return this.nanos == 0 ? 0 : this.firings * 1e9 / this.nanos;
+        }
+    }
+
+    /**
+     * Lancer un lot d'exécutions.
+     *
+     * @param net réseau compilé
+     * @param runs nombre d'exécutions
+     * @param maxFirings nombre maximum de tirs par exécution
+     * @param seed graine du lot
+     * @param pool pool de threads, ou null pour un lot séquentiel
+     * @return statistiques du lot
+     */
+    public static Statistics run(CompiledNet net, int runs, long maxFirings, long seed, ForkJoinPool pool) {
+        long debut = System.nanoTime();
+        Lot lot = new Lot(net, 0, runs, maxFirings, seed);
+        Cumul cumul = pool == null ? lot.compute() : pool.invoke(lot);
+        long nanos = System.nanoTime() - debut;
+
+        double[] moyenne = new double[net.places];
+        for (int p = 0; p < moyenne.length; p++) {
+            moyenne[p] = runs == 0 ? 0 : (double) cumul.somme[p] / runs;
+        }
+        return new Statistics(runs, cumul.deadlocks, cumul.firings, moyenne, cumul.max, nanos);
+    }
+
+    /**
+     * Graine de l'exécution i : mélange (finaliseur de MurmurHash3) pour que des
+     * exécutions voisines n'aient pas des suites corrélées.
+     */
+    static long graine(long seed, int i) {
+        long z = seed + (i + 1) * 0xC2B2AE3D27D4EB4FL;
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    // Sommes partielles d'un morceau du lot
+    private static class Cumul {
+        int deadlocks;
+        long firings;
+        final long[] somme;
+        final int[] max;
+
+        Cumul(int places) {
+            this.somme = new long[places];
+            this.max = new int[places];
+        }
+
+        Cumul fusionner(Cumul autre) {
+            this.deadlocks += autre.deadlocks;
+            this.firings += autre.firings;
+            for (int p = 0; p < this.somme.length; p++) {
+                this.somme[p] += autre.somme[p];
+                this.max[p] = Math.max(this.max[p], autre.max[p]);
+            }
+            return this;
+        }
+    }
+
+    // Exécutions [debut, fin[ du lot, découpées en deux tant qu'il y en a plus que TAILLE_LOT
+    private static class Lot extends RecursiveTask<Cumul> {
+        private static final long serialVersionUID = 1L;
+        private final CompiledNet net;
+        private final int debut;
+        private final int fin;
+        private final long maxFirings;
+        private final long seed;
+
+        Lot(CompiledNet net, int debut, int fin, long maxFirings, long seed) {
+            this.net = net;
+            this.debut = debut;
+            this.fin = fin;
+            this.maxFirings = maxFirings;
+            this.seed = seed;
+        }
+
+        @Override
+        protected Cumul compute() {
+            if (this.fin - this.debut > TAILLE_LOT) {
+                int milieu = (this.debut + this.fin) >>> 1;
+                Lot gauche = new Lot(this.net, this.debut, milieu, this.maxFirings, this.seed);
+                gauche.fork();
+                Cumul droite = new Lot(this.net, milieu, this.fin, this.maxFirings, this.seed).compute();
+                return gauche.join().fusionner(droite);
+            }
+
+            // un simulateur par morceau, remis au marquage initial à chaque exécution
+            Cumul cumul = new Cumul(this.net.places);
+            Simulator simulator = new Simulator(this.net);
+            for (int i = this.debut; i < this.fin; i++) {
+                if (i > this.debut) {
+                    simulator.reset();
+                }
+                cumul.firings += simulator.run(FiringPolicy.random(new SplittableRandom(graine(this.seed, i))), this.maxFirings);
+                if (simulator.isDeadlocked()) {
+                    cumul.deadlocks++;
+                }
+                for (int p = 0; p < this.net.places; p++) {
+                    int jetons = simulator.getTokens(p);
+                    cumul.somme[p] += jetons;
+                    cumul.max[p] = Math.max(cumul.max[p], jetons);
+                }
+            }
+            return cumul;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package fr.n7.petriNet1.simulation;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import petriNet1.Arc;
+import petriNet1.Node;
+import petriNet1.PetriNet;
+import petriNet1.Place;
+import petriNet1.Transition;
+
+/**
+ * Compilation d'un PetriNet EMF en CompiledNet. Les places et les transitions sont
+ * numérotées dans l'ordre du réseau ; le compilateur garde la correspondance pour
+ * retrouver les objets EMF (et y recopier un marquage).
+ *
+ * Le réseau doit être valide (cf. PetriNetValidator) : un arc qui relie deux places,
+ * deux transitions, un noeud d'un autre réseau ou qui a un poids inférieur à 1 est
+ * refusé. Plusieurs arcs entre la même place et la même transition sont fusionnés en
+ * additionnant leurs poids.
+ */
+public class NetCompiler {
+
+    private final List<Place> places = new ArrayList<>();
+    private final List<Transition> transitions = new ArrayList<>();
+    private final CompiledNet compiled;
+
+    /**
+     * Compiler un réseau.
+     *
+     * @param net le réseau à compiler
+     * @throws IllegalArgumentException si le réseau n'est pas valide
+     */
+    public NetCompiler(PetriNet net) {
+        Map<Node, Integer> numeros = new IdentityHashMap<>();
+        for (Node node : net.getPetrinetElements()) {
+            if (node instanceof Place place) {
+                numeros.put(place, this.places.size());
+                this.places.add(place);
+            } else if (node instanceof Transition transition) {
+                numeros.put(transition, this.transitions.size());
+                this.transitions.add(transition);
+            }
+        }
+
+        // Poids par transition puis par place, dans l'ordre des arcs
+        List<Map<Integer, Integer>> pre = new ArrayList<>();
+        List<Map<Integer, Integer>> post = new ArrayList<>();
+        for (int t = 0; t < this.transitions.size(); t++) {
+            pre.add(new LinkedHashMap<>(2));
+            post.add(new LinkedHashMap<>(2));
+        }
+        for (Arc arc : net.getArcs()) {
+            Integer source = numeros.get(arc.getSource());
+            Integer target = numeros.get(arc.getTarget());
+            if (source == null || target == null) {
+                throw new IllegalArgumentException("arc dont une extrémité n'est pas un noeud du réseau");
+            }
+            if (arc.getWeight() < 1) {
+                throw new IllegalArgumentException("arc de poids " + arc.getWeight() + " (au moins 1 attendu)");
+            }
+            if (arc.getSource() instanceof Place && arc.getTarget() instanceof Transition) {
+                pre.get(target).merge(source, arc.getWeight(), Math::addExact);
+            } else if (arc.getSource() instanceof Transition && arc.getTarget() instanceof Place) {
+                post.get(source).merge(target, arc.getWeight(), Math::addExact);
+            } else {
+                throw new IllegalArgumentException("arc entre deux noeuds de même type");
+            }
+        }
+
+        int[] marking = new int[this.places.size()];
+        String[] placeNames = new String[marking.length];
+        for (int p = 0; p < marking.length; p++) {
+            marking[p] = this.places.get(p).getTokens();
+            placeNames[p] = this.places.get(p).getName();
+        }
+        String[] transitionNames = new String[this.transitions.size()];
+        for (int t = 0; t < transitionNames.length; t++) {
+            transitionNames[t] = this.transitions.get(t).getName();
+        }
+
+        this.compiled = new CompiledNet(marking, creux(pre), creux(post), placeNames, transitionNames);
+    }
+
+    public CompiledNet getCompiledNet() {
+        return this.compiled;
+    }
+
+    public Place getPlace(int p) {
+        return this.places.get(p);
+    }
+
+    public Transition getTransition(int t) {
+        return this.transitions.get(t);
+    }
+
+    /**
+     * Recopier un marquage dans les places du réseau EMF.
+     *
+     * @param marking marquage, une case par place
+     */
+    public void applyMarking(int[] marking) {
+        for (int p = 0; p < marking.length; p++) {
+            this.places.get(p).setTokens(marking[p]);
+        }
+    }
+
+    // Poids par transition -> {start, place, weight}
+    private static int[][] creux(List<Map<Integer, Integer>> arcs) {
+        int[] start = new int[arcs.size() + 1];
+        for (int t = 0; t < arcs.size(); t++) {
+            start[t + 1] = start[t] + arcs.get(t).size();
+        }
+        int[] place = new int[start[arcs.size()]];
+        int[] weight = new int[place.length];
+        int i = 0;
+        for (Map<Integer, Integer> poids : arcs) {
+            for (Map.Entry<Integer, Integer> e : poids.entrySet()) {
+                place[i] = e.getKey();
+                weight[i++] = e.getValue();
+            }
+        }
+        return new int[][] {start, place, weight};
+    }
+}
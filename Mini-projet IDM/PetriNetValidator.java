@@ -1,6 +1,12 @@
 package fr.n7.petriNet1.validation;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
@@ -18,6 +24,17 @@ public class PetriNetValidator extends petriNet1.util.PetriNet1Switch<Boolean> {
 
     private ValidationResult result = null;
 
+    // Pool pour valider les noeuds et les arcs en parallèle (null : séquentiel)
+    private ForkJoinPool pool = null;
+
+    // Taille en dessous de laquelle une tranche de noeuds ou d'arcs n'est plus découpée
+    private static final int TAILLE_MORCEAU = 4096;
+
+    // Échecs d'un validateur qui ne visite qu'une tranche (null : directement dans result)
+    private List<Echec> echecs = null;
+
+    record Echec(EObject object, String message) {}
+
     
     public PetriNetValidator() {}
 
@@ -28,7 +45,22 @@ public class PetriNetValidator extends petriNet1.util.PetriNet1Switch<Boolean> {
      * @return un objet contenant les résultats de la validation
      */
     public ValidationResult validate(Resource resource) {
+        return this.validate(resource, null);
+    }
+
+    /**
+     * Lancer la validation en répartissant les noeuds et les arcs de chaque réseau
+     * sur un pool de threads. Le résultat est identique à celui de la validation
+     * séquentielle : les échecs de chaque tranche sont enregistrés dans l'ordre.
+     * Le modèle ne doit pas être modifié pendant la validation.
+     * 
+     * @param resource La ressource à valider
+     * @param pool le pool de threads, ou null pour une validation séquentielle
+     * @return un objet contenant les résultats de la validation
+     */
+    public ValidationResult validate(Resource resource, ForkJoinPool pool) {
         this.result = new ValidationResult();
+        this.pool = pool;
 
         for (EObject object : resource.getContents()) {
             this.doSwitch(object);
@@ -41,45 +73,146 @@ public class PetriNetValidator extends petriNet1.util.PetriNet1Switch<Boolean> {
     @Override
     public Boolean casePetriNet(PetriNet object) {
         // Contrainte : unicité des noms de places et transitions
+        Set<Node> doublons = doublons(object);
+
+        if (this.pool == null) {
+            for (Node node : object.getPetrinetElements()) {
+                this.validerNoeud(node, doublons);
+            }
+
+            // Valider tous les arcs
+            for (Arc arc : object.getArcs()) {
+                this.doSwitch(arc); // appel à caseArc
+            }
+        } else {
+            List<Echec> tous = new ArrayList<>();
+            tous.addAll(this.pool.invoke(new Morceau(object.getPetrinetElements(), 0, object.getPetrinetElements().size(), doublons)));
+            tous.addAll(this.pool.invoke(new Morceau(object.getArcs(), 0, object.getArcs().size(), doublons)));
+            for (Echec echec : tous) {
+                this.result.recordIfFailed(false, echec.object(), echec.message());
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Noeuds dont le nom est déjà porté par une place (ou une transition) placée
+     * avant eux dans le réseau.
+     */
+    private static Set<Node> doublons(PetriNet net) {
         Set<String> placeNames = new HashSet<>();
         Set<String> transitionNames = new HashSet<>();
+        Set<Node> doublons = Collections.newSetFromMap(new IdentityHashMap<>());
 
-        for (Node node : object.getPetrinetElements()) {
-            if (node instanceof Place) {
-                Place place = (Place) node;
-                if (!placeNames.add(place.getName())) {
-                    this.result.recordIfFailed(
-                        false,
-                        place,
-                        "Le nom de la place '" + place.getName() + "' est dupliqué."
-                    );
-                }
-                this.doSwitch(place); // appel à casePlace
-            } else if (node instanceof Transition) {
-                Transition transition = (Transition) node;
-                if (!transitionNames.add(transition.getName())) {
-                    this.result.recordIfFailed(
-                        false,
-                        transition,
-                        "Le nom de la transition '" + transition.getName() + "' est dupliqué."
-                    );
-                }
-                this.doSwitch(transition); // appel à caseTransition
-            } else {
-                this.result.recordIfFailed(
+        for (Node node : net.getPetrinetElements()) {
+            if (node instanceof Place && !placeNames.add(((Place) node).getName())) {
+                doublons.add(node);
+            } else if (node instanceof Transition && !transitionNames.add(((Transition) node).getName())) {
+                doublons.add(node);
+            }
+        }
+        return doublons;
+    }
+
+    private void validerNoeud(Node node, Set<Node> doublons) {
+        if (node instanceof Place) {
+            Place place = (Place) node;
+            if (doublons.contains(place)) {
+                this.record(
                     false,
-                    node,
-                    "Type de noeud inconnu : " + node.getClass().getSimpleName()
+                    place,
+                    "Le nom de la place '" + place.getName() + "' est dupliqué."
                 );
             }
+            this.doSwitch(place); // appel à casePlace
+        } else if (node instanceof Transition) {
+            Transition transition = (Transition) node;
+            if (doublons.contains(transition)) {
+                this.record(
+                    false,
+                    transition,
+                    "Le nom de la transition '" + transition.getName() + "' est dupliqué."
+                );
+            }
+            this.doSwitch(transition); // appel à caseTransition
+        } else {
+            this.record(
+                false,
+                node,
+                "Type de noeud inconnu : " + node.getClass().getSimpleName()
+            );
         }
+    }
 
-        // Valider tous les arcs
-        for (Arc arc : object.getArcs()) {
-            this.doSwitch(arc); // appel à caseArc
+    /**
+     * Échecs d'un seul noeud ou arc (utilisé par IncrementalPetriNetValidator).
+     * 
+     * @param element noeud ou arc à valider
+     * @param doublons noeuds dont le nom est déjà pris plus haut dans le réseau
+     * @return les contraintes non respectées par l'élément
+     */
+    List<Echec> verifier(EObject element, Set<Node> doublons) {
+        this.echecs = new ArrayList<>();
+        if (element instanceof Node) {
+            this.validerNoeud((Node) element, doublons);
+        } else {
+            this.doSwitch(element);
         }
+        return this.echecs;
+    }
 
-        return null;
+    private void record(boolean ok, EObject object, String message) {
+        if (this.echecs == null) {
+            this.result.recordIfFailed(ok, object, message);
+        } else if (!ok) {
+            this.echecs.add(new Echec(object, message));
+        }
+    }
+
+    /**
+     * Validation d'une tranche [debut, fin[ des noeuds ou des arcs d'un réseau, coupée
+     * en deux tant qu'elle dépasse TAILLE_MORCEAU ; chaque morceau a son propre
+     * validateur et sa propre liste d'échecs.
+     */
+    private static class Morceau extends RecursiveTask<List<Echec>> {
+        private static final long serialVersionUID = 1L;
+        private final List<? extends EObject> elements;
+        private final int debut;
+        private final int fin;
+        private final Set<Node> doublons;
+
+        Morceau(List<? extends EObject> elements, int debut, int fin, Set<Node> doublons) {
+            this.elements = elements;
+            this.debut = debut;
+            this.fin = fin;
+            this.doublons = doublons;
+        }
+
+        @Override
+        protected List<Echec> compute() {
+            if (this.fin - this.debut > TAILLE_MORCEAU) {
+                int milieu = (this.debut + this.fin) >>> 1;
+                Morceau gauche = new Morceau(this.elements, this.debut, milieu, this.doublons);
+                gauche.fork();
+                List<Echec> droite = new Morceau(this.elements, milieu, this.fin, this.doublons).compute();
+                List<Echec> resultat = gauche.join();
+                resultat.addAll(droite);
+                return resultat;
+            }
+
+            PetriNetValidator visiteur = new PetriNetValidator();
+            visiteur.echecs = new ArrayList<>();
+            for (int i = this.debut; i < this.fin; i++) {
+                EObject element = this.elements.get(i);
+                if (element instanceof Node) {
+                    visiteur.validerNoeud((Node) element, this.doublons);
+                } else {
+                    visiteur.doSwitch(element); // appel à caseArc
+                }
+            }
+            return visiteur.echecs;
+        }
     }
 
 
@@ -87,7 +220,7 @@ public class PetriNetValidator extends petriNet1.util.PetriNet1Switch<Boolean> {
     @Override
     public Boolean casePlace(Place object) {
         Integer tokens = object.getTokens();
-        this.result.recordIfFailed(
+        this.record(
             tokens != null && tokens >= 0,
             object,
             "Le nombre de jetons pour la place '" + object.getName() + "' ne peut pas être nul ou négatif."
@@ -99,7 +232,7 @@ public class PetriNetValidator extends petriNet1.util.PetriNet1Switch<Boolean> {
     
     @Override
     public Boolean caseTransition(Transition object) {
-        this.result.recordIfFailed(
+        this.record(
             object.getName() != null && !object.getName().trim().isEmpty(),
             object,
             "Le nom de la transition ne peut pas être vide."
@@ -112,7 +245,7 @@ public class PetriNetValidator extends petriNet1.util.PetriNet1Switch<Boolean> {
     public Boolean caseArc(Arc object) {
         // Poids ≥ 1
     	Integer weight = object.getWeight();
-    	this.result.recordIfFailed(
+    	this.record(
     	    weight != null && weight >= 1,
     	    object,
     	    "Le poids de l'arc doit être défini et ≥ 1."
@@ -121,7 +254,7 @@ public class PetriNetValidator extends petriNet1.util.PetriNet1Switch<Boolean> {
         boolean bothPlace = object.getSource() instanceof Place && object.getTarget() instanceof Place;
         boolean bothTransition = object.getSource() instanceof Transition && object.getTarget() instanceof Transition;
 
-        this.result.recordIfFailed(
+        this.record(
             !(bothPlace || bothTransition),
             object,
             "Un arc ne peut pas relier deux éléments du même type (Place→Place ou Transition→Transition)."
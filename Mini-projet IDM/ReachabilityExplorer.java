@@ -0,0 +1,442 @@
+package fr.n7.petriNet1.simulation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exploration du graphe des marquages accessibles d'un CompiledNet, en largeur et
+ * niveau par niveau : les marquages d'un niveau sont répartis par lots sur un pool de
+ * threads, les successeurs jamais vus forment le niveau suivant.
+ *
+ * Les marquages sont codés par MarkingCodec et rangés dans un VisitedSet ; un niveau
+ * trop gros pour la mémoire est déversé sur disque (Frontier). Quand les marquages vus
+ * dépassent leur budget, ils sont archivés sur disque et les doublons ne sont plus
+ * détectés qu'en fin de niveau (VisitedArchive) : l'ensemble en mémoire n'est plus
+ * qu'un cache, et c'est le disque qui borne la taille des graphes traités.
+ *
+ * Pendant l'exploration sont vérifiés :
+ * - les blocages (marquages sans transition sensibilisée), le premier trouvé étant
+ *   gardé comme témoin ; comme l'exploration est en largeur, il est à distance
+ *   minimale du marquage initial ;
+ * - le caractère borné : le réseau est non borné de façon certaine dès qu'une
+ *   transition "pompe" (qui ne retire de jetons d'aucune place et en ajoute à au
+ *   moins une) est sensibilisée, puisqu'elle le reste et peut être tirée sans fin ;
+ *   sinon l'exploration s'arrête si une place dépasse la borne fixée. Une exploration
+ *   complète prouve que le réseau est borné par le maximum observé.
+ */
+public class ReachabilityExplorer {
+
+    // Marquages par tâche
+    private static final int TAILLE_LOT = 1024;
+
+    public enum Boundedness {
+        // exploration complète : maxTokens donne la borne de chaque place
+        BOUNDED,
+        // une transition pompe est sensibilisée dans un marquage accessible
+        UNBOUNDED,
+        // une place a dépassé la borne demandée
+        BOUND_EXCEEDED,
+        // exploration arrêtée avant la fin (nombre de marquages, blocage)
+        UNKNOWN
+    }
+
+    /**
+     * Résultat d'une exploration.
+     *
+     * @param states marquages accessibles trouvés
+     * @param edges tirs examinés (arcs du graphe)
+     * @param levels niveaux explorés (profondeur atteinte)
+     * @param deadlocks marquages bloquants trouvés
+     * @param deadlock premier marquage bloquant (null si aucun)
+     * @param boundedness résultat de la vérification du caractère borné
+     * @param witness transition pompe ou place au-delà de la borne (-1 sinon)
+     * @param maxTokens plus grand nombre de jetons observé dans chaque place
+     * @param complete vrai si tous les marquages accessibles ont été explorés
+     * @param spilledBytes octets écrits sur disque pour les niveaux et les marquages vus
+     * @param nanos durée de l'exploration
+     */
+    public record Result(long states, long edges, int levels, long deadlocks, int[] deadlock,
+            Boundedness boundedness, int witness, int[] maxTokens, boolean complete,
+            long spilledBytes, long nanos) {}
+
+    private final CompiledNet net;
+
+    // Transitions sans place en entrée (toujours sensibilisées)
+    private final int[] sources;
+    // Places en sortie de chaque transition, triées (pour construire le successeur)
+    private final int[] sortieTriee;
+    // Transitions dont le tir ne retire aucun jeton et en ajoute au moins un
+    private final boolean[] pompe;
+
+    private int bound = 1 << 16;
+    private long maxStates = Long.MAX_VALUE;
+    // Budgets par défaut : deux niveaux, les candidats et les marquages vus sont en
+    // mémoire en même temps, la moitié du tas reste libre pour le reste
+    private long memoryBudget = Runtime.getRuntime().maxMemory() / 10;
+    private long candidateBudget = Runtime.getRuntime().maxMemory() / 20;
+    private long visitedBudget = Runtime.getRuntime().maxMemory() / 4;
+    private Path spillDirectory = Path.of(System.getProperty("java.io.tmpdir"));
+    private boolean stopAtDeadlock = false;
+
+    // État d'une exploration en cours
+    private VisitedSet visites;
+    private VisitedArchive archive;
+    private AtomicLong etats;
+    private LongAdder arcs;
+    private LongAdder blocages;
+    private AtomicIntegerArray maxJetons;
+    private volatile boolean arret;
+    private int[] premierBlocage;
+    private Boundedness verdict;
+    private int temoin;
+    private ThreadLocal<Travail> travail;
+    // Verrou des témoins (explore() garde le verrou de l'objet pendant toute l'exploration)
+    private final Object temoins = new Object();
+
+    public ReachabilityExplorer(CompiledNet net) {
+        this.net = net;
+
+        List<Integer> sansEntree = new ArrayList<>();
+        for (int t = 0; t < net.transitions; t++) {
+            if (net.preStart[t] == net.preStart[t + 1]) {
+                sansEntree.add(t);
+            }
+        }
+        this.sources = sansEntree.stream().mapToInt(Integer::intValue).toArray();
+
+        this.sortieTriee = net.postPlace.clone();
+        this.pompe = new boolean[net.transitions];
+        int[] effet = new int[net.places];
+        for (int t = 0; t < net.transitions; t++) {
+            Arrays.sort(this.sortieTriee, net.postStart[t], net.postStart[t + 1]);
+            for (int i = net.preStart[t]; i < net.preStart[t + 1]; i++) {
+                effet[net.prePlace[i]] -= net.preWeight[i];
+            }
+            for (int i = net.postStart[t]; i < net.postStart[t + 1]; i++) {
+                effet[net.postPlace[i]] += net.postWeight[i];
+            }
+            boolean retire = false;
+            boolean ajoute = false;
+            for (int i = net.preStart[t]; i < net.preStart[t + 1]; i++) {
+                retire |= effet[net.prePlace[i]] < 0;
+                effet[net.prePlace[i]] = 0;
+            }
+            for (int i = net.postStart[t]; i < net.postStart[t + 1]; i++) {
+                ajoute |= effet[net.postPlace[i]] > 0;
+                effet[net.postPlace[i]] = 0;
+            }
+            this.pompe[t] = ajoute && !retire;
+        }
+    }
+
+    // Nombre de jetons au-delà duquel une place est jugée non bornée
+    public void setBound(int bound) {
+        this.bound = bound;
+    }
+
+    // Arrêter l'exploration après ce nombre de marquages
+    public void setMaxStates(long maxStates) {
+        this.maxStates = maxStates;
+    }
+
+    // Mémoire (octets) d'un niveau au-delà de laquelle il est déversé sur disque
+    public void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    // Mémoire (octets) des candidats d'un niveau au-delà de laquelle ils sont triés sur disque
+    public void setCandidateBudget(long candidateBudget) {
+        this.candidateBudget = candidateBudget;
+    }
+
+    // Mémoire (octets) des marquages vus au-delà de laquelle ils sont archivés sur disque
+    public void setVisitedBudget(long visitedBudget) {
+        this.visitedBudget = visitedBudget;
+    }
+
+    public void setSpillDirectory(Path spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    // Arrêter l'exploration au premier blocage
+    public void setStopAtDeadlock(boolean stopAtDeadlock) {
+        this.stopAtDeadlock = stopAtDeadlock;
+    }
+
+    /**
+     * Explorer les marquages accessibles depuis le marquage initial.
+     *
+     * @param pool pool de threads, ou null pour une exploration séquentielle
+     * @return résultat de l'exploration
+     * @throws IOException si un niveau ne peut pas être écrit ou relu sur disque
+     */
+    public synchronized Result explore(ForkJoinPool pool) throws IOException {
+        long debut = System.nanoTime();
+        this.visites = new VisitedSet(this.visitedBudget);
+        this.archive = new VisitedArchive(this.candidateBudget, this.spillDirectory);
+        this.etats = new AtomicLong();
+        this.arcs = new LongAdder();
+        this.blocages = new LongAdder();
+        this.maxJetons = new AtomicIntegerArray(this.net.initialMarking);
+        this.arret = false;
+        this.premierBlocage = null;
+        this.verdict = null;
+        this.temoin = -1;
+        this.travail = ThreadLocal.withInitial(Travail::new);
+
+        byte[] initial = MarkingCodec.encode(this.net.initialMarking);
+        this.visites.add(initial);
+        this.etats.incrementAndGet();
+        Frontier niveau = new Frontier(this.memoryBudget, this.spillDirectory);
+        niveau.addAll(List.of(initial));
+
+        int niveaux = 0;
+        long deverses = 0;
+        try {
+            while (niveau.size() > 0 && !this.arret) {
+                Frontier suivant = new Frontier(this.memoryBudget, this.spillDirectory);
+                try {
+                    this.explorerNiveau(niveau, suivant, pool);
+                    if (!this.arret) {
+                        this.dedoublonner(suivant);
+                    }
+                } finally {
+                    // suivant est fermé avec le niveau courant si l'exploration échoue
+                    deverses += niveau.getSpilledBytes();
+                    niveau.close();
+                    niveau = suivant;
+                }
+                niveaux++;
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            deverses += niveau.getSpilledBytes();
+            niveau.close();
+            deverses += this.archive.getSpilledBytes();
+            this.archive.close();
+        }
+
+        boolean complet = !this.arret;
+        Boundedness b = this.verdict != null ? this.verdict : complet ? Boundedness.BOUNDED : Boundedness.UNKNOWN;
+        int[] max = new int[this.net.places];
+        for (int p = 0; p < max.length; p++) {
+            max[p] = this.maxJetons.get(p);
+        }
+        return new Result(this.etats.get(), this.arcs.sum(), niveaux, this.blocages.sum(), this.premierBlocage,
+            b, this.temoin, max, complet, deverses, System.nanoTime() - debut);
+    }
+
+    // Fin de niveau : les candidats sont comparés aux marquages archivés (détection
+    // différée), le VisitedSet plein est archivé à la première occasion puis vidé
+    private void dedoublonner(Frontier suivant) throws IOException {
+        if (!this.archive.hasCandidates() && !this.visites.isFull()) {
+            return;
+        }
+        if (!this.archive.isActive()) {
+            this.archive.archive(this.visites);
+            this.visites.markArchived();
+        }
+        long nouveaux = this.archive.filter(suivant, this.maxStates - this.etats.get());
+        if (this.etats.addAndGet(nouveaux) >= this.maxStates) {
+            this.arret = true;
+        }
+        if (this.visites.isFull()) {
+            this.visites.clear();
+        }
+    }
+
+    // Un niveau par lots, avec au plus deux lots en attente par thread
+    private void explorerNiveau(Frontier niveau, Frontier suivant, ForkJoinPool pool) throws IOException {
+        ArrayDeque<ForkJoinTask<?>> enCours = new ArrayDeque<>();
+        int maxEnCours = pool == null ? 0 : 2 * pool.getParallelism();
+        niveau.forEachBatch(TAILLE_LOT, lot -> {
+            if (this.arret) {
+                return;
+            }
+            if (pool == null) {
+                this.explorerLot(lot, suivant);
+                return;
+            }
+            while (enCours.size() >= maxEnCours) {
+                enCours.poll().join();
+            }
+            enCours.add(pool.submit(() -> this.explorerLot(lot, suivant)));
+        });
+        for (ForkJoinTask<?> tache : enCours) {
+            tache.join();
+        }
+    }
+
+    // Tampons d'un thread, réutilisés d'un marquage à l'autre
+    private final class Travail {
+        final int[] marquage = new int[net.places];
+        final int[] nonVides = new int[net.places];
+        final int[] successeur = new int[net.places];
+        final int[] vueAu = new int[net.transitions];
+        int date;
+        byte[] tampon = new byte[64];
+    }
+
+    private void explorerLot(List<byte[]> lot, Frontier suivant) {
+        Travail w = this.travail.get();
+        List<byte[]> nouveaux = new ArrayList<>();
+        List<byte[]> candidats = new ArrayList<>();
+        for (byte[] code : lot) {
+            if (this.arret) {
+                break;
+            }
+            int n = MarkingCodec.decode(code, w.marquage, w.nonVides);
+            if (++w.date == 0) {
+                Arrays.fill(w.vueAu, 0);
+                w.date = 1;
+            }
+
+            // Seules les transitions qui consomment dans une place non vide peuvent
+            // être sensibilisées, en plus des transitions sans entrée
+            int sensibilisees = 0;
+            for (int t : this.sources) {
+                sensibilisees++;
+                this.successeur(w, n, t, nouveaux, candidats);
+            }
+            for (int i = 0; i < n; i++) {
+                int p = w.nonVides[i];
+                for (int j = this.net.consumerStart[p]; j < this.net.consumerStart[p + 1]; j++) {
+                    int t = this.net.consumers[j];
+                    if (w.vueAu[t] != w.date) {
+                        w.vueAu[t] = w.date;
+                        if (this.net.isEnabled(w.marquage, t)) {
+                            sensibilisees++;
+                            this.successeur(w, n, t, nouveaux, candidats);
+                        }
+                    }
+                }
+            }
+            this.arcs.add(sensibilisees);
+
+            if (sensibilisees == 0) {
+                this.blocages.increment();
+                this.signalerBlocage(w.marquage);
+            }
+
+            // remettre le marquage à zéro pour le prochain décodage
+            for (int i = 0; i < n; i++) {
+                w.marquage[w.nonVides[i]] = 0;
+            }
+        }
+        try {
+            suivant.addAll(nouveaux);
+            if (!candidats.isEmpty()) {
+                this.archive.addCandidates(candidats);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Successeur du marquage courant par t, ajouté à nouveaux s'il n'a jamais été vu,
+    // à candidats s'il ne peut être vérifié qu'en fin de niveau
+    private void successeur(Travail w, int n, int t, List<byte[]> nouveaux, List<byte[]> candidats) {
+        if (this.pompe[t]) {
+            this.signaler(Boundedness.UNBOUNDED, t);
+            return;
+        }
+
+        int[] m = w.marquage;
+        CompiledNet c = this.net;
+        for (int i = c.preStart[t]; i < c.preStart[t + 1]; i++) {
+            m[c.prePlace[i]] -= c.preWeight[i];
+        }
+        for (int i = c.postStart[t]; i < c.postStart[t + 1]; i++) {
+            int p = c.postPlace[i];
+            if ((long) m[p] + c.postWeight[i] > this.bound) {
+                this.signaler(Boundedness.BOUND_EXCEEDED, p);
+                this.defaire(m, t, i);
+                return;
+            }
+            m[p] += c.postWeight[i];
+            if (m[p] > this.maxJetons.get(p)) {
+                this.maxJetons.accumulateAndGet(p, m[p], Math::max);
+            }
+        }
+
+        // places non vides du successeur : fusion des places non vides du marquage
+        // courant et des places en sortie de t (deux listes triées)
+        int k = 0;
+        int i = 0;
+        int j = c.postStart[t];
+        int fin = c.postStart[t + 1];
+        while (i < n || j < fin) {
+            int p;
+            if (j >= fin || (i < n && w.nonVides[i] < this.sortieTriee[j])) {
+                p = w.nonVides[i++];
+            } else if (i >= n || this.sortieTriee[j] < w.nonVides[i]) {
+                p = this.sortieTriee[j++];
+            } else {
+                p = w.nonVides[i++];
+                j++;
+            }
+            if (m[p] != 0) {
+                w.successeur[k++] = p;
+            }
+        }
+        if (w.tampon.length < 10 * k) {
+            w.tampon = new byte[Math.max(10 * k, 2 * w.tampon.length)];
+        }
+        byte[] code = Arrays.copyOf(w.tampon, MarkingCodec.encode(m, w.successeur, k, w.tampon));
+        switch (this.visites.add(code)) {
+            case NEW -> {
+                nouveaux.add(code);
+                if (this.etats.incrementAndGet() >= this.maxStates) {
+                    this.arret = true;
+                }
+            }
+            case MAYBE_NEW -> candidats.add(code);
+            case SEEN -> { }
+        }
+
+        this.defaire(m, t, c.postStart[t + 1]);
+    }
+
+    // Défaire le tir de t, dont seuls les arcs de sortie [postStart[t], fin[ ont été appliqués
+    private void defaire(int[] m, int t, int fin) {
+        CompiledNet c = this.net;
+        for (int i = c.postStart[t]; i < fin; i++) {
+            m[c.postPlace[i]] -= c.postWeight[i];
+        }
+        for (int i = c.preStart[t]; i < c.preStart[t + 1]; i++) {
+            m[c.prePlace[i]] += c.preWeight[i];
+        }
+    }
+
+    private void signalerBlocage(int[] marquage) {
+        synchronized (this.temoins) {
+            if (this.premierBlocage == null) {
+                this.premierBlocage = marquage.clone();
+            }
+        }
+        if (this.stopAtDeadlock) {
+            this.arret = true;
+        }
+    }
+
+    private void signaler(Boundedness b, int temoin) {
+        synchronized (this.temoins) {
+            if (this.verdict == null) {
+                this.verdict = b;
+                this.temoin = temoin;
+            }
+        }
+        this.arret = true;
+    }
+}
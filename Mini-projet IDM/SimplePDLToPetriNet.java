@@ -10,78 +10,86 @@ import simplepdl.WorkSequence;
 
 public class SimplePDLToPetriNet {
 
-    private Map<WorkDefinition, Place> readyPlaces = new HashMap<>();
-    private Map<WorkDefinition, Place> finishedPlaces = new HashMap<>();
-    private Map<WorkDefinition, Transition> workTransitions = new HashMap<>();
+    // Fragment du réseau généré pour une WorkDefinition (lien de trace)
+    public record WorkDefinitionTrace(Place ready, Place finished, Transition work, Arc arcIn, Arc arcOut) {}
 
     public PetriNet transform(simplepdl.Process process) {
         PetriNet petriNet = PetriNet1Factory.eINSTANCE.createPetriNet();
         petriNet.setName(process.getName()); // optionnel
 
+        // Propre à cet appel : un même transformateur peut servir pour plusieurs process
+        Map<WorkDefinition, WorkDefinitionTrace> traces = new HashMap<>();
+
         for (ProcessElement element : process.getProcessElements()) {
             if (element instanceof WorkDefinition wd) {
-                // Create 'ready' Place
-                Place ready = PetriNet1Factory.eINSTANCE.createPlace();
-                ready.setName(wd.getName() + "_ready");
-                ready.setTokens(1); 
-                petriNet.getPetrinetElements().add(ready);
-                readyPlaces.put(wd, ready);
-
-                // Create 'finished' Place
-                Place finished = PetriNet1Factory.eINSTANCE.createPlace();
-                finished.setName(wd.getName() + "_finished");
-                finished.setTokens(0);
-                petriNet.getPetrinetElements().add(finished);
-                finishedPlaces.put(wd, finished);
-
-                // Create Transition
-                Transition transition = PetriNet1Factory.eINSTANCE.createTransition();
-                transition.setName(wd.getName() + "_do");
-                petriNet.getPetrinetElements().add(transition);
-                workTransitions.put(wd, transition);
-
-                // Arc from ready → transition
-                Arc arcIn = PetriNet1Factory.eINSTANCE.createArc();
-                arcIn.setSource(ready);
-                arcIn.setTarget(transition);
-                arcIn.setWeight(1);
-                petriNet.getArcs().add(arcIn);
-
-                // Arc from transition → finished
-                Arc arcOut = PetriNet1Factory.eINSTANCE.createArc();
-                arcOut.setSource(transition);
-                arcOut.setTarget(finished);
-                arcOut.setWeight(1);
-                petriNet.getArcs().add(arcOut);
+                traces.put(wd, addWorkDefinition(petriNet, wd));
             }
         }
 
         // Handle WorkSequences
         for (ProcessElement element : process.getProcessElements()) {
             if (element instanceof WorkSequence ws) {
-                WorkDefinition pred = ws.getPredecessor();
-                WorkDefinition succ = ws.getSuccessor();
-
-                Place sourcePlace = null;
-                Transition targetTransition = workTransitions.get(succ);
-
-                switch (ws.getLinkType()) {
-                    case FINISH_TO_START -> sourcePlace = finishedPlaces.get(pred);
-                    case START_TO_START -> sourcePlace = readyPlaces.get(pred);
-                    case FINISH_TO_FINISH -> sourcePlace = finishedPlaces.get(pred);
-                    case START_TO_FINISH -> sourcePlace = readyPlaces.get(pred);
-                }
-
-                if (sourcePlace != null && targetTransition != null) {
-                    Arc dependencyArc = PetriNet1Factory.eINSTANCE.createArc();
-                    dependencyArc.setSource(sourcePlace);
-                    dependencyArc.setTarget(targetTransition);
-                    dependencyArc.setWeight(1);
-                    petriNet.getArcs().add(dependencyArc);
-                }
+                addWorkSequence(petriNet, ws, traces);
             }
         }
 
         return petriNet;
     }
+
+    // Places, transition et arcs d'une WorkDefinition, ajoutés à la fin du réseau
+    static WorkDefinitionTrace addWorkDefinition(PetriNet petriNet, WorkDefinition wd) {
+        // Create 'ready' Place
+        Place ready = PetriNet1Factory.eINSTANCE.createPlace();
+        ready.setName(wd.getName() + "_ready");
+        ready.setTokens(1);
+        petriNet.getPetrinetElements().add(ready);
+
+        // Create 'finished' Place
+        Place finished = PetriNet1Factory.eINSTANCE.createPlace();
+        finished.setName(wd.getName() + "_finished");
+        finished.setTokens(0);
+        petriNet.getPetrinetElements().add(finished);
+
+        // Create Transition
+        Transition transition = PetriNet1Factory.eINSTANCE.createTransition();
+        transition.setName(wd.getName() + "_do");
+        petriNet.getPetrinetElements().add(transition);
+
+        // Arc from ready → transition
+        Arc arcIn = PetriNet1Factory.eINSTANCE.createArc();
+        arcIn.setSource(ready);
+        arcIn.setTarget(transition);
+        arcIn.setWeight(1);
+        petriNet.getArcs().add(arcIn);
+
+        // Arc from transition → finished
+        Arc arcOut = PetriNet1Factory.eINSTANCE.createArc();
+        arcOut.setSource(transition);
+        arcOut.setTarget(finished);
+        arcOut.setWeight(1);
+        petriNet.getArcs().add(arcOut);
+
+        return new WorkDefinitionTrace(ready, finished, transition, arcIn, arcOut);
+    }
+
+    // Arc de dépendance d'une WorkSequence (null si une des activités n'a pas été traduite)
+    static Arc addWorkSequence(PetriNet petriNet, WorkSequence ws, Map<WorkDefinition, WorkDefinitionTrace> traces) {
+        WorkDefinitionTrace pred = traces.get(ws.getPredecessor());
+        WorkDefinitionTrace succ = traces.get(ws.getSuccessor());
+        if (pred == null || succ == null) {
+            return null;
+        }
+
+        Place sourcePlace = switch (ws.getLinkType()) {
+            case FINISH_TO_START, FINISH_TO_FINISH -> pred.finished();
+            case START_TO_START, START_TO_FINISH -> pred.ready();
+        };
+
+        Arc dependencyArc = PetriNet1Factory.eINSTANCE.createArc();
+        dependencyArc.setSource(sourcePlace);
+        dependencyArc.setTarget(succ.work());
+        dependencyArc.setWeight(1);
+        petriNet.getArcs().add(dependencyArc);
+        return dependencyArc;
+    }
 }
@@ -0,0 +1,172 @@
+package simplepdl.topetrinet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+
+import petriNet1.Arc;
+import petriNet1.PetriNet;
+import petriNet1.PetriNet1Factory;
+import simplepdl.ProcessElement;
+import simplepdl.SimplepdlPackage;
+import simplepdl.WorkDefinition;
+import simplepdl.WorkSequence;
+import simplepdl.topetrinet.SimplePDLToPetriNet.WorkDefinitionTrace;
+
+/**
+ * Transformation "vivante" d'un process en réseau de Petri.
+ *
+ * Le réseau est construit une fois, comme par SimplePDLToPetriNet, puis tenu à jour à
+ * partir des notifications EMF du process : seul le fragment touché par une
+ * modification est recréé, renommé ou supprimé. Les liens de trace (fragment de
+ * chaque WorkDefinition, arc de chaque WorkSequence) permettent de retrouver ce
+ * fragment sans reparcourir le process ni le réseau.
+ *
+ * Le coût d'une modification dépend du nombre d'éléments touchés (et des dépendances
+ * d'une activité ajoutée ou retirée), pas de la taille du modèle ; seul le retrait
+ * d'un élément du réseau décale la liste EMF qui le contient.
+ */
+public class SimplePDLToPetriNetSync extends EContentAdapter {
+
+    private final simplepdl.Process process;
+    private final PetriNet petriNet;
+
+    // Liens de trace
+    private final Map<WorkDefinition, WorkDefinitionTrace> traces = new HashMap<>();
+    private final Map<WorkSequence, Arc> dependencyArcs = new HashMap<>();
+
+    public SimplePDLToPetriNetSync(simplepdl.Process process) {
+        this.process = process;
+        this.petriNet = PetriNet1Factory.eINSTANCE.createPetriNet();
+        this.petriNet.setName(process.getName());
+
+        for (ProcessElement element : process.getProcessElements()) {
+            if (element instanceof WorkDefinition wd) {
+                this.traces.put(wd, SimplePDLToPetriNet.addWorkDefinition(this.petriNet, wd));
+            }
+        }
+        for (ProcessElement element : process.getProcessElements()) {
+            if (element instanceof WorkSequence ws) {
+                this.update(ws);
+            }
+        }
+
+        process.eAdapters().add(this);
+    }
+
+    // Réseau synchronisé (ne pas le modifier directement)
+    public PetriNet getPetriNet() {
+        return this.petriNet;
+    }
+
+    // Fragment généré pour une WorkDefinition du process (null sinon)
+    public WorkDefinitionTrace getTrace(WorkDefinition wd) {
+        return this.traces.get(wd);
+    }
+
+    // Arc généré pour une WorkSequence (null si elle n'en produit pas)
+    public Arc getArc(WorkSequence ws) {
+        return this.dependencyArcs.get(ws);
+    }
+
+    // Arrêter la synchronisation ; le réseau reste dans son dernier état
+    public void dispose() {
+        this.process.eAdapters().remove(this);
+    }
+
+    @Override
+    public void notifyChanged(Notification notification) {
+        // EContentAdapter suit les éléments ajoutés au process ou retirés
+        super.notifyChanged(notification);
+        if (notification.isTouch()) {
+            return;
+        }
+
+        Object feature = notification.getFeature();
+        if (feature == SimplepdlPackage.Literals.PROCESS__NAME) {
+            this.petriNet.setName(this.process.getName());
+        } else if (feature == SimplepdlPackage.Literals.PROCESS__PROCESS_ELEMENTS) {
+            if (notification.getEventType() == Notification.MOVE) {
+                return; // l'ordre des éléments ne change pas le réseau
+            }
+            for (Object element : values(notification.getOldValue())) {
+                if (element instanceof WorkDefinition wd) {
+                    this.removeWorkDefinition(wd);
+                } else if (element instanceof WorkSequence ws) {
+                    this.removeArc(ws);
+                }
+            }
+            for (Object element : values(notification.getNewValue())) {
+                if (element instanceof WorkDefinition wd) {
+                    this.traces.put(wd, SimplePDLToPetriNet.addWorkDefinition(this.petriNet, wd));
+                    this.updateLinks(wd);
+                } else if (element instanceof WorkSequence ws) {
+                    this.update(ws);
+                }
+            }
+        } else if (feature == SimplepdlPackage.Literals.WORK_DEFINITION__NAME) {
+            WorkDefinitionTrace trace = this.traces.get(notification.getNotifier());
+            if (trace != null) {
+                String name = ((WorkDefinition) notification.getNotifier()).getName();
+                trace.ready().setName(name + "_ready");
+                trace.finished().setName(name + "_finished");
+                trace.work().setName(name + "_do");
+            }
+        } else if (feature == SimplepdlPackage.Literals.WORK_SEQUENCE__LINK_TYPE
+                || feature == SimplepdlPackage.Literals.WORK_SEQUENCE__PREDECESSOR
+                || feature == SimplepdlPackage.Literals.WORK_SEQUENCE__SUCCESSOR) {
+            this.update((WorkSequence) notification.getNotifier());
+        }
+    }
+
+    // Recréer l'arc d'une WorkSequence à partir de son état courant
+    private void update(WorkSequence ws) {
+        this.removeArc(ws);
+        if (ws.eContainer() == this.process) {
+            Arc arc = SimplePDLToPetriNet.addWorkSequence(this.petriNet, ws, this.traces);
+            if (arc != null) {
+                this.dependencyArcs.put(ws, arc);
+            }
+        }
+    }
+
+    // Les dépendances d'une activité ajoutée ou retirée gagnent ou perdent leur arc
+    private void updateLinks(WorkDefinition wd) {
+        List<WorkSequence> links = new ArrayList<>(wd.getLinksToPredecessors());
+        links.addAll(wd.getLinksToSuccessors());
+        for (WorkSequence ws : links) {
+            this.update(ws);
+        }
+    }
+
+    private void removeWorkDefinition(WorkDefinition wd) {
+        WorkDefinitionTrace trace = this.traces.remove(wd);
+        if (trace == null) {
+            return;
+        }
+        this.petriNet.getArcs().remove(trace.arcIn());
+        this.petriNet.getArcs().remove(trace.arcOut());
+        this.petriNet.getPetrinetElements().remove(trace.ready());
+        this.petriNet.getPetrinetElements().remove(trace.finished());
+        this.petriNet.getPetrinetElements().remove(trace.work());
+        this.updateLinks(wd);
+    }
+
+    private void removeArc(WorkSequence ws) {
+        Arc arc = this.dependencyArcs.remove(ws);
+        if (arc != null) {
+            this.petriNet.getArcs().remove(arc);
+        }
+    }
+
+    private static List<?> values(Object value) {
+        if (value instanceof List<?> list) {
+            return list;
+        }
+        return value == null ? List.of() : List.of(value);
+    }
+}
@@ -1,7 +1,15 @@
 package simplepdl.validation;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.regex.Pattern;
 
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
@@ -11,9 +19,9 @@ import simplepdl.Process;
 import simplepdl.ProcessElement;
 import simplepdl.Ressource;
 import simplepdl.RessourceRequirement;
-import simplepdl.SimplepdlPackage;
 import simplepdl.WorkDefinition;
 import simplepdl.WorkSequence;
+import simplepdl.WorkSequenceType;
 import simplepdl.util.SimplepdlSwitch;
 
 /**
@@ -36,11 +44,107 @@ public class SimplePDLValidator extends SimplepdlSwitch<Boolean> {
 	 */
 	private static final String IDENT_REGEX = "^[A-Za-z_][A-Za-z0-9_]*$";
 	
+	/**
+	 * Version compilée une fois pour toutes de IDENT_REGEX.
+	 */
+	private static final Pattern IDENT_PATTERN = Pattern.compile(IDENT_REGEX);
+	
 	/**
 	 * Résultat de la validation (état interne réinitialisé à chaque nouvelle validation).
 	 */
 	private ValidationResult result = null;
 	
+	/**
+	 * Index des process visités (état interne réinitialisé à chaque nouvelle validation).
+	 */
+	private Map<Process, ProcessIndex> indexes = new IdentityHashMap<>();
+	
+	/**
+	 * Pool utilisé pour visiter les éléments des process en parallèle (null pour une
+	 * visite séquentielle).
+	 */
+	private ForkJoinPool pool = null;
+	
+	/**
+	 * Nombre d'éléments en dessous duquel un morceau de process n'est plus découpé.
+	 */
+	private static final int TAILLE_MORCEAU = 4096;
+	
+	/**
+	 * Échecs accumulés par un validateur qui ne visite qu'un morceau d'un process
+	 * (null sinon : les échecs vont directement dans result).
+	 */
+	private List<Echec> echecs = null;
+	
+	/**
+	 * Contrainte non respectée, en attente d'être enregistrée dans le résultat.
+	 */
+	record Echec(EObject object, String message) {}
+	
+	/**
+	 * Clé d'une dépendance : deux WorkSequence sont en doublon si elles ont la même clé.
+	 */
+	record Dependance(WorkSequenceType type, WorkDefinition predecessor, WorkDefinition successor) {}
+	
+	/**
+	 * Index d'un process, construit en un seul parcours de ses éléments : activités
+	 * portant chaque nom et dépendances complètes par clé.
+	 * Les contraintes d'unicité se vérifient ensuite en temps constant par élément,
+	 * au lieu de reparcourir tout le process pour chaque activité ou dépendance.
+	 * IncrementalSimplePDLValidator tient cet index à jour au fil des modifications.
+	 */
+	static class ProcessIndex {
+		final Map<String, List<WorkDefinition>> workDefinitionNames = new HashMap<>();
+		final Map<Dependance, List<WorkSequence>> dependances = new HashMap<>();
+		
+		ProcessIndex() {}
+		
+		ProcessIndex(Process process) {
+			for (ProcessElement pe : process.getProcessElements()) {
+				if (pe instanceof WorkDefinition wd) {
+					ajouter(this.workDefinitionNames, wd.getName(), wd);
+				} else if (pe instanceof WorkSequence ws && ws.getPredecessor() != null && ws.getSuccessor() != null) {
+					ajouter(this.dependances, cle(ws), ws);
+				}
+			}
+		}
+		
+		static Dependance cle(WorkSequence ws) {
+			return new Dependance(ws.getLinkType(), ws.getPredecessor(), ws.getSuccessor());
+		}
+		
+		/**
+		 * Ajouter un élément sous une clé.
+		 * @return les éléments rangés sous cette clé, y compris le nouveau
+		 */
+		static <K, V> List<V> ajouter(Map<K, List<V>> index, K cle, V element) {
+			List<V> elements = index.computeIfAbsent(cle, k -> new ArrayList<>(1));
+			elements.add(element);
+			return elements;
+		}
+		
+		/**
+		 * Retirer un élément rangé sous une clé.
+		 * @return les éléments qui restent sous cette clé
+		 */
+		static <K, V> List<V> retirer(Map<K, List<V>> index, K cle, V element) {
+			List<V> elements = index.get(cle);
+			if (elements == null) {
+				return List.of();
+			}
+			elements.remove(element);
+			if (elements.isEmpty()) {
+				index.remove(cle);
+			}
+			return elements;
+		}
+		
+		static <K, V> int nombre(Map<K, List<V>> index, K cle) {
+			List<V> elements = index.get(cle);
+			return elements == null ? 0 : elements.size();
+		}
+	}
+	
 	/**
 	 * Construire un validateur
 	 */
@@ -54,7 +158,24 @@ public class SimplePDLValidator extends SimplepdlSwitch<Boolean> {
 	 * @return résultat de validation
 	 */
 	public ValidationResult validate(Resource resource) {
+		return this.validate(resource, null);
+	}
+	
+	/**
+	 * Lancer la validation en visitant les éléments de chaque process en parallèle
+	 * sur pool (séquentiellement si pool est null).
+	 * Les éléments sont découpés en morceaux validés chacun par un validateur à part ;
+	 * leurs échecs sont ensuite enregistrés dans l'ordre de la visite séquentielle,
+	 * si bien que le résultat est le même. Le modèle ne doit pas être modifié pendant
+	 * la validation.
+	 * @param resource resource à valider
+	 * @param pool pool de threads, ou null
+	 * @return résultat de validation
+	 */
+	public ValidationResult validate(Resource resource, ForkJoinPool pool) {
 		this.result = new ValidationResult();
+		this.indexes = new IdentityHashMap<>();
+		this.pool = pool;
 		
 		for (EObject object : resource.getContents()) {
 			this.doSwitch(object);
@@ -74,34 +195,62 @@ public class SimplePDLValidator extends SimplepdlSwitch<Boolean> {
 	@Override
 	public Boolean caseProcess(simplepdl.Process object) {
 		// Contrainte : Le nom du process respecte les conventions Java
-		this.result.recordIfFailed(
-			object.getName() != null && object.getName().matches(IDENT_REGEX), 
-			object, 
-			"Le nom du process ne respecte pas les conventions Java"
-		);
+		this.validerNom(object);
 
 		// Contrainte 4 : Noms uniques des ressources dans le process
 		Set<String> ressourceNames = new HashSet<>();
 		for (ProcessElement pe : object.getProcessElements()) {
 			if (pe instanceof Ressource res) {
 				if (!ressourceNames.add(res.getName())) {
-					this.result.recordIfFailed(
-						false,
-						res,
-						"Le nom de la ressource '" + res.getName() + "' est dupliqué dans le process '" + object.getName() + "'."
-					);
+					this.ressourceDupliquee(res, object);
 				}
 			}
 		}
 
+		// Index des noms d'activités et des dépendances, avant la visite des éléments
+		this.indexes.put(object, new ProcessIndex(object));
+
 		// Visite de tous les ProcessElements
-		for (ProcessElement pe : object.getProcessElements()) {
-			this.doSwitch(pe);
+		if (this.pool == null) {
+			for (ProcessElement pe : object.getProcessElements()) {
+				this.doSwitch(pe);
+			}
+		} else {
+			List<ProcessElement> elements = object.getProcessElements();
+			for (Echec echec : this.pool.invoke(new Morceau(elements, 0, elements.size()))) {
+				this.result.recordIfFailed(false, echec.object(), echec.message());
+			}
 		}
 
 		return null;
 	}
 
+	/**
+	 * Contrainte sur le nom d'un process, vérifiée seule par la validation incrémentale.
+	 * @param object process visité
+	 */
+	private void validerNom(Process object) {
+		this.record(
+			isIdentifier(object.getName()), 
+			object, 
+			"Le nom du process ne respecte pas les conventions Java"
+		);
+	}
+
+	/**
+	 * Enregistrer une ressource dont le nom est déjà pris par une ressource précédente
+	 * du process.
+	 * @param res ressource en doublon
+	 * @param process process qui contient la ressource
+	 */
+	private void ressourceDupliquee(Ressource res, Process process) {
+		this.record(
+			false,
+			res,
+			"Le nom de la ressource '" + res.getName() + "' est dupliqué dans le process '" + process.getName() + "'."
+		);
+	}
+
 
 	/**
 	 * Méthode appelée lorsque l'objet visité est un ProcessElement (ou un sous type).
@@ -125,15 +274,14 @@ public class SimplePDLValidator extends SimplepdlSwitch<Boolean> {
 		Process process = (Process) object.eContainer();
 
 		// Contraintes sur WD
-		this.result.recordIfFailed(
-				object.getName() != null || object.getName().matches(IDENT_REGEX), 
+		this.record(
+				isIdentifier(object.getName()), 
 				object, 
 				"Le nom de l'activité ne respecte pas les conventions Java");
 		
-		this.result.recordIfFailed(
-				process.getProcessElements().stream()
-					.filter(p -> p.eClass().getClassifierID() == SimplepdlPackage.WORK_DEFINITION)
-					.allMatch(pe -> (pe.equals(object) || !((WorkDefinition) pe).getName().contains(object.getName()))),
+		// Unicité : aucune autre activité du process ne porte exactement ce nom
+		this.record(
+				ProcessIndex.nombre(indexFor(process).workDefinitionNames, object.getName()) <= 1,
 				object, 
 				"Le nom de l'activité (" + object.getName() + ") n'est pas unique");
 		
@@ -141,7 +289,7 @@ public class SimplePDLValidator extends SimplepdlSwitch<Boolean> {
 		Set<Ressource> seenRessources = new HashSet<>();
 		for (RessourceRequirement req : object.getRessourcesRequirements()) {
 			if (!seenRessources.add(req.getRessource())) {
-				this.result.recordIfFailed(
+				this.record(
 					false,
 					object,
 					"La ressource '" + req.getRessource().getName() + "' est utilisée plusieurs fois dans la WorkDefinition '" 
@@ -168,7 +316,7 @@ public class SimplePDLValidator extends SimplepdlSwitch<Boolean> {
 
 		// Vérifier que les deux sont présents
 		if (pred == null || succ == null) {
-			this.result.recordIfFailed(
+			this.record(
 				false,
 				object,
 				"La WorkSequence est incomplète : prédécesseur ou successeur manquant."
@@ -177,7 +325,7 @@ public class SimplePDLValidator extends SimplepdlSwitch<Boolean> {
 		}
 
 		// Contrainte 1 : pas de boucle sur soi-même
-		this.result.recordIfFailed(
+		this.record(
 			!pred.equals(succ),
 			object,
 			"La dépendance relie l'activité " + pred.getName() + " à elle-même."
@@ -185,13 +333,8 @@ public class SimplePDLValidator extends SimplepdlSwitch<Boolean> {
 
 		// Contrainte 2 : pas de doublon exact
 		Process process = (Process) object.eContainer();
-		this.result.recordIfFailed(
-			process.getProcessElements().stream()
-				.filter(p -> p.eClass().getClassifierID() == SimplepdlPackage.WORK_SEQUENCE)
-				.allMatch(pe -> (pe.equals(object)
-					|| !(((WorkSequence) pe).getLinkType().equals(object.getLinkType())
-					&& ((WorkSequence) pe).getPredecessor().equals(pred)
-					&& ((WorkSequence) pe).getSuccessor().equals(succ)))),
+		this.record(
+			ProcessIndex.nombre(indexFor(process).dependances, ProcessIndex.cle(object)) <= 1,
 			object,
 			"Il existe déjà une dépendance de type " + object.getLinkType() +
 			" entre " + pred.getName() + " et " + succ.getName() + "."
@@ -210,7 +353,7 @@ public class SimplePDLValidator extends SimplepdlSwitch<Boolean> {
 	@Override
 	public Boolean caseGuidance(Guidance object) {
 		// Contraintes sur la guidance : texte non vide
-		this.result.recordIfFailed(
+		this.record(
 				!(object.getText() == null) , 
 				object, 
 				"La guidance possede un texte vide");
@@ -225,7 +368,7 @@ public class SimplePDLValidator extends SimplepdlSwitch<Boolean> {
 	@Override
 	public Boolean caseRessource(Ressource object) {
 		// Contrainte 1 sur les ressources : Le nombre doit être >= 0
-		this.result.recordIfFailed(
+		this.record(
 			object.getNumber() >= 0,
 			object,
 			"La ressource '" + object.getName() + "' a un nombre négatif (" + object.getNumber() + ")."
@@ -243,7 +386,7 @@ public class SimplePDLValidator extends SimplepdlSwitch<Boolean> {
 	@Override
 	public Boolean caseRessourceRequirement(simplepdl.RessourceRequirement object) {
 		// Contrainte 2 sur les ressources utilisées par les activités du processus : numberRequired > 0
-		this.result.recordIfFailed(
+		this.record(
 			object.getNumberRequired() > 0,
 			object,
 			"Le nombre de ressources requises doit être strictement positif."
@@ -251,7 +394,7 @@ public class SimplePDLValidator extends SimplepdlSwitch<Boolean> {
 
 		// Contrainte 1 : ne pas demander plus que disponible
 		if (object.getRessource() != null) {
-			this.result.recordIfFailed(
+			this.record(
 				object.getNumberRequired() <= object.getRessource().getNumber(),
 				object,
 				"La ressource requise '" + object.getRessource().getName() + "' demande " 
@@ -265,6 +408,104 @@ public class SimplePDLValidator extends SimplepdlSwitch<Boolean> {
 
 
 
+	/**
+	 * Enregistrer le résultat d'une contrainte, dans result ou dans la liste des échecs
+	 * du morceau en cours de visite.
+	 * @param ok vrai si la contrainte est respectée
+	 * @param object élément concerné
+	 * @param message message d'erreur
+	 */
+	private void record(boolean ok, EObject object, String message) {
+		if (this.echecs == null) {
+			this.result.recordIfFailed(ok, object, message);
+		} else if (!ok) {
+			this.echecs.add(new Echec(object, message));
+		}
+	}
+
+	/**
+	 * Échecs d'un seul élément (utilisé par IncrementalSimplePDLValidator). Pour un
+	 * process, seul son nom est vérifié : ses éléments sont vérifiés un par un.
+	 * @param element process ou élément d'un process
+	 * @param index index à jour du process qui contient l'élément
+	 * @param doublon vrai pour une ressource dont le nom est déjà pris plus haut dans
+	 * le process
+	 * @return les contraintes non respectées par l'élément
+	 */
+	List<Echec> verifier(EObject element, ProcessIndex index, boolean doublon) {
+		this.echecs = new ArrayList<>();
+		if (element instanceof Process process) {
+			this.validerNom(process);
+		} else {
+			Process process = (Process) element.eContainer();
+			this.indexes.clear();
+			this.indexes.put(process, index);
+			if (doublon) {
+				this.ressourceDupliquee((Ressource) element, process);
+			}
+			this.doSwitch(element);
+		}
+		return this.echecs;
+	}
+
+	/**
+	 * Visite d'une tranche [debut, fin[ des éléments d'un process, découpée en deux
+	 * tant qu'elle dépasse TAILLE_MORCEAU. Chaque morceau est visité par un validateur
+	 * qui partage les index (en lecture seule) et accumule ses propres échecs.
+	 */
+	private class Morceau extends RecursiveTask<List<Echec>> {
+		private static final long serialVersionUID = 1L;
+		private final List<ProcessElement> elements;
+		private final int debut;
+		private final int fin;
+
+		Morceau(List<ProcessElement> elements, int debut, int fin) {
+			this.elements = elements;
+			this.debut = debut;
+			this.fin = fin;
+		}
+
+		@Override
+		protected List<Echec> compute() {
+			if (this.fin - this.debut > TAILLE_MORCEAU) {
+				int milieu = (this.debut + this.fin) >>> 1;
+				Morceau gauche = new Morceau(this.elements, this.debut, milieu);
+				gauche.fork();
+				List<Echec> droite = new Morceau(this.elements, milieu, this.fin).compute();
+				List<Echec> resultat = gauche.join();
+				resultat.addAll(droite);
+				return resultat;
+			}
+
+			SimplePDLValidator visiteur = new SimplePDLValidator();
+			visiteur.indexes = SimplePDLValidator.this.indexes;
+			visiteur.echecs = new ArrayList<>();
+			for (int i = this.debut; i < this.fin; i++) {
+				visiteur.doSwitch(this.elements.get(i));
+			}
+			return visiteur.echecs;
+		}
+	}
+
+	/**
+	 * Index du process, construit s'il n'a pas encore été visité (cas d'un élément
+	 * validé seul).
+	 * @param process process contenant l'élément visité
+	 * @return index du process
+	 */
+	private ProcessIndex indexFor(Process process) {
+		return this.indexes.computeIfAbsent(process, ProcessIndex::new);
+	}
+
+	/**
+	 * Indique si un nom respecte les conventions Java (IDENT_REGEX).
+	 * @param name nom à tester, éventuellement null
+	 * @return vrai si le nom est non null et bien formé
+	 */
+	private static boolean isIdentifier(String name) {
+		return name != null && IDENT_PATTERN.matcher(name).matches();
+	}
+
 	/**
 	 * Cas par défaut, lorsque l'objet visité ne correspond pas à un des autres cas.
 	 * Cette méthode est aussi appelée lorsqu'une méthode renvoie null (comme une sorte de
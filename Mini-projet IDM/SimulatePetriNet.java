@@ -0,0 +1,116 @@
+package fr.n7.petriNet1.simulation;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+
+import fr.n7.persistence.BinaryResourceFactory;
+
+import petriNet1.PetriNet;
+import petriNet1.PetriNet1Package;
+import simplepdl.SimplepdlPackage;
+import simplepdl.topetrinet.SimplePDLToPetriNet;
+
+/**
+ * Simule un réseau de Petri (ou le réseau généré pour un process SimplePDL) et
+ * affiche les statistiques d'un lot d'exécutions aléatoires.
+ *
+ * Usage : SimulatePetriNet [-n exécutions] [-f tirs max] [-j threads] [-s graine]
+ *         [--step K] modele.xmi
+ * Avec "--step K", une seule exécution de K tirs est affichée pas à pas.
+ */
+public class SimulatePetriNet {
+
+    // Au-delà, le marquage moyen n'est pas détaillé place par place
+    private static final int PLACES_AFFICHEES = 50;
+
+    public static void main(String... args) {
+        @SuppressWarnings("unused")
+        PetriNet1Package petriNetPackage = PetriNet1Package.eINSTANCE;
+        @SuppressWarnings("unused")
+        SimplepdlPackage simplepdlPackage = SimplepdlPackage.eINSTANCE;
+
+        Resource.Factory.Registry reg = Resource.Factory.Registry.INSTANCE;
+        Map<String, Object> m = reg.getExtensionToFactoryMap();
+        m.put("xmi", new XMIResourceFactoryImpl());
+        m.put(BinaryResourceFactory.EXTENSION, new BinaryResourceFactory());
+
+        int runs = 1000;
+        long maxFirings = 100000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 42;
+        int steps = -1;
+        String model = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-n" -> runs = Integer.parseInt(args[++i]);
+                case "-f" -> maxFirings = Long.parseLong(args[++i]);
+                case "-j" -> threads = Integer.parseInt(args[++i]);
+                case "-s" -> seed = Long.parseLong(args[++i]);
+                case "--step" -> steps = Integer.parseInt(args[++i]);
+                default -> model = args[i];
+            }
+        }
+        if (model == null) {
+            System.err.println("Usage : SimulatePetriNet [-n exécutions] [-f tirs max] [-j threads] [-s graine] [--step K] modele.xmi");
+            return;
+        }
+
+        ResourceSet resSet = new ResourceSetImpl();
+        Resource resource = resSet.getResource(URI.createURI(model), true);
+        EObject racine = resource.getContents().get(0);
+        PetriNet net = racine instanceof simplepdl.Process process
+            ? new SimplePDLToPetriNet().transform(process)
+            : (PetriNet) racine;
+
+        CompiledNet compiled = new NetCompiler(net).getCompiledNet();
+        System.out.println("Réseau " + net.getName() + " : " + compiled.getPlaceCount() + " place(s), "
+            + compiled.getTransitionCount() + " transition(s)");
+
+        if (steps >= 0) {
+            pasAPas(compiled, steps, seed);
+            return;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        MonteCarlo.Statistics stats = MonteCarlo.run(compiled, runs, maxFirings, seed, threads > 1 ? pool : null);
+        pool.shutdown();
+
+        System.out.println(stats.runs() + " exécution(s), " + stats.deadlocks() + " terminée(s) par un blocage");
+        System.out.println(stats.firings() + " tir(s) en " + stats.nanos() / 1_000_000 + " ms ("
+            + Math.round(stats.firingsPerSecond()) + " tirs/s)");
+        if (compiled.getPlaceCount() <= PLACES_AFFICHEES) {
+            System.out.println("Marquage final (moyenne / max) :");
+            for (int p = 0; p < compiled.getPlaceCount(); p++) {
+                System.out.printf("  %s : %.3f / %d%n", compiled.getPlaceName(p), stats.meanMarking()[p], stats.maxMarking()[p]);
+            }
+        }
+    }
+
+    // Une exécution aléatoire affichée tir par tir
+    private static void pasAPas(CompiledNet compiled, int steps, long seed) {
+        Simulator simulator = new Simulator(compiled);
+        FiringPolicy policy = FiringPolicy.random(new SplittableRandom(seed));
+        for (int i = 0; i < steps; i++) {
+            int t = simulator.step(policy);
+            if (t < 0) {
+                System.out.println("Blocage après " + i + " tir(s)");
+                break;
+            }
+            StringBuilder marquage = new StringBuilder();
+            for (int p = 0; p < compiled.getPlaceCount(); p++) {
+                if (simulator.getTokens(p) > 0) {
+                    marquage.append(' ').append(compiled.getPlaceName(p)).append('=').append(simulator.getTokens(p));
+                }
+            }
+            System.out.println((i + 1) + ". " + compiled.getTransitionName(t) + " ->" + marquage);
+        }
+    }
+}
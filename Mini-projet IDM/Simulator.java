@@ -0,0 +1,193 @@
+package fr.n7.petriNet1.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Jeu de jetons sur un CompiledNet.
+ *
+ * Le simulateur garde l'ensemble des transitions sensibilisées à jour : après un tir,
+ * seules les transitions qui consomment dans une place dont le marquage a changé sont
+ * revérifiées. Le choix et le tir d'une transition coûtent donc un temps qui dépend
+ * du voisinage de la transition tirée, pas de la taille du réseau.
+ *
+ * Un simulateur n'est pas thread-safe ; pour des simulations en parallèle, chaque
+ * thread utilise le sien sur le même CompiledNet (cf. MonteCarlo).
+ */
+public class Simulator {
+
+    private final CompiledNet net;
+    private final int[] marking;
+
+    // Transitions sensibilisées, dans un ordre quelconque : enabled[0 .. enabledCount[
+    private final int[] enabled;
+    private int enabledCount;
+    // Position de chaque transition dans enabled (-1 si elle n'est pas sensibilisée)
+    private final int[] position;
+
+    // Pour ne revérifier qu'une fois par tir une transition qui consomme dans
+    // plusieurs places modifiées
+    private final int[] verifieeAu;
+    private int tir;
+
+    private long firings;
+
+    public Simulator(CompiledNet net) {
+        this.net = net;
+        this.marking = new int[net.places];
+        this.enabled = new int[net.transitions];
+        this.position = new int[net.transitions];
+        this.verifieeAu = new int[net.transitions];
+        this.reset();
+    }
+
+    /**
+     * Revenir au marquage initial.
+     */
+    public void reset() {
+        System.arraycopy(this.net.initialMarking, 0, this.marking, 0, this.marking.length);
+        Arrays.fill(this.position, -1);
+        this.enabledCount = 0;
+        for (int t = 0; t < this.net.transitions; t++) {
+            if (this.net.isEnabled(this.marking, t)) {
+                this.ajouter(t);
+            }
+        }
+        this.firings = 0;
+    }
+
+    public CompiledNet getNet() {
+        return this.net;
+    }
+
+    public int getTokens(int p) {
+        return this.marking[p];
+    }
+
+    public int[] getMarking() {
+        return this.marking.clone();
+    }
+
+    public long getFirings() {
+        return this.firings;
+    }
+
+    public boolean isEnabled(int t) {
+        return this.position[t] >= 0;
+    }
+
+    public int getEnabledCount() {
+        return this.enabledCount;
+    }
+
+    /**
+     * i-ème transition sensibilisée, pour les politiques de tir. L'ordre change au fil
+     * des tirs.
+     *
+     * @param i indice entre 0 et getEnabledCount() - 1
+     * @return numéro de la transition
+     */
+    public int getEnabled(int i) {
+        return this.enabled[i];
+    }
+
+    /**
+     * @return les transitions sensibilisées, par numéro croissant
+     */
+    public int[] getEnabledTransitions() {
+        int[] copie = Arrays.copyOf(this.enabled, this.enabledCount);
+        Arrays.sort(copie);
+        return copie;
+    }
+
+    public boolean isDeadlocked() {
+        return this.enabledCount == 0;
+    }
+
+    /**
+     * Tirer une transition.
+     *
+     * @param t numéro de la transition
+     * @throws IllegalStateException si la transition n'est pas sensibilisée
+     */
+    public void fire(int t) {
+        if (this.position[t] < 0) {
+            throw new IllegalStateException("la transition " + this.net.getTransitionName(t) + " n'est pas sensibilisée");
+        }
+        this.net.fire(this.marking, t);
+        this.firings++;
+
+        if (++this.tir == 0) {
+            // après 2^32 tirs, on repart d'un tableau propre
+            Arrays.fill(this.verifieeAu, 0);
+            this.tir = 1;
+        }
+        for (int i = this.net.preStart[t]; i < this.net.preStart[t + 1]; i++) {
+            this.reverifier(this.net.prePlace[i]);
+        }
+        for (int i = this.net.postStart[t]; i < this.net.postStart[t + 1]; i++) {
+            this.reverifier(this.net.postPlace[i]);
+        }
+    }
+
+    /**
+     * Tirer une transition choisie par une politique (tir pas à pas).
+     *
+     * @param policy politique de tir
+     * @return la transition tirée, ou -1 si aucune n'est sensibilisée
+     */
+    public int step(FiringPolicy policy) {
+        if (this.enabledCount == 0) {
+            return -1;
+        }
+        int t = policy.choose(this);
+        this.fire(t);
+        return t;
+    }
+
+    /**
+     * Tirer des transitions jusqu'à un blocage ou jusqu'à maxFirings tirs.
+     *
+     * @param policy politique de tir
+     * @param maxFirings nombre maximum de tirs
+     * @return nombre de transitions tirées
+     */
+    public long run(FiringPolicy policy, long maxFirings) {
+        long n = 0;
+        while (n < maxFirings && this.enabledCount > 0) {
+            this.fire(policy.choose(this));
+            n++;
+        }
+        return n;
+    }
+
+    // Revérifier les transitions qui consomment dans une place dont le marquage a changé
+    private void reverifier(int p) {
+        for (int i = this.net.consumerStart[p]; i < this.net.consumerStart[p + 1]; i++) {
+            int t = this.net.consumers[i];
+            if (this.verifieeAu[t] == this.tir) {
+                continue;
+            }
+            this.verifieeAu[t] = this.tir;
+            boolean sensibilisee = this.net.isEnabled(this.marking, t);
+            if (sensibilisee && this.position[t] < 0) {
+                this.ajouter(t);
+            } else if (!sensibilisee && this.position[t] >= 0) {
+                this.retirer(t);
+            }
+        }
+    }
+
+    private void ajouter(int t) {
+        this.position[t] = this.enabledCount;
+        this.enabled[this.enabledCount++] = t;
+    }
+
+    // La dernière transition de enabled prend la place de t
+    private void retirer(int t) {
+        int i = this.position[t];
+        int derniere = this.enabled[--this.enabledCount];
+        this.enabled[i] = derniere;
+        this.position[derniere] = i;
+        this.position[t] = -1;
+    }
+}
@@ -9,6 +9,8 @@ import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.emf.ecore.resource.Resource.Factory;
 import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
 
+import fr.n7.persistence.BinaryResourceFactory;
+
 import petriNet1.*;
 import simplepdl.*;
 import simplepdl.Process;
@@ -23,6 +25,7 @@ public class TestTransform {
         Factory.Registry reg = Factory.Registry.INSTANCE;
         Map<String, Object> m = reg.getExtensionToFactoryMap();
         m.put("xmi", new XMIResourceFactoryImpl());
+        m.put(BinaryResourceFactory.EXTENSION, new BinaryResourceFactory());
 
         System.out.println("=== Transformation d'un processus créé en mémoire ===");
 
@@ -1,7 +1,10 @@
 package fr.n7.petriNet1.validation;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
@@ -9,6 +12,8 @@ import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
 
+import fr.n7.persistence.BinaryResourceFactory;
+
 import petriNet1.PetriNet1Package;
 
 /**
@@ -16,39 +21,77 @@ import petriNet1.PetriNet1Package;
  * affiche le résultat.
  * 
  * Les modèles sont donnés dans les arguments de la ligne de commande, et le résultat
- * est affiché dans le terminal.
+ * est affiché dans le terminal. Ils sont validés en parallèle (option "-j N" pour
+ * fixer le nombre de threads, "-j 1" pour une validation séquentielle).
+ * Le code de sortie est 1 si un modèle est en erreur ou n'a pas pu être chargé.
+ *
+ * Usage : ValidatePetriNet [-j threads] modele.xmi [modele2.xmi ...]
  */
 public class ValidatePetriNet {
 
+    /**
+     * Compte rendu de la validation d'un modèle : texte à afficher et nombre d'erreurs
+     * (-1 si le modèle n'a pas pu être chargé).
+     */
+    private record CompteRendu(String texte, int erreurs) {}
+
     /**
      * Afficher une liste d'erreurs avec un préfixe.
      * Le préfixe est affiché avec "OK" si la liste est vide, sinon chaque erreur est affichée.
      * 
+     * @param sortie texte auquel ajouter l'affichage
      * @param prefix préfixe à afficher avant la liste
      * @param errors erreurs à afficher
+     * @return nombre d'erreurs
      */
-    private static void afficherErreurs(String prefix, List<ValidationResult.ValidationError> errors) {
-        System.out.print(prefix + ":");
+    private static int afficherErreurs(StringBuilder sortie, String prefix, List<ValidationResult.ValidationError> errors) {
+        sortie.append(prefix + ":");
         if (errors.isEmpty()) {
-            System.out.println(" OK");
+            sortie.append(" OK\n");
         } else {
-            System.out.println(" " + errors.size() + " erreur(s) trouvée(s)");
+            sortie.append(" " + errors.size() + " erreur(s) trouvée(s)\n");
             for (ValidationResult.ValidationError error : errors) {
-                System.out.println("=> " + error.toString());
+                sortie.append("=> " + error.toString() + "\n");
             }
         }
+        return errors.size();
     }
 
     /**
      * Affiche les erreurs classées par type d'élément du modèle PetriNet.
      * 
+     * @param sortie texte auquel ajouter l'affichage
      * @param resultat résultat de la validation
+     * @return nombre total d'erreurs
      */
-    private static void afficherResultat(ValidationResult resultat) {
-        afficherErreurs("- PetriNet",    resultat.getRecordedErrorsFor(petriNet1.PetriNet1Package.PETRI_NET));
-        afficherErreurs("- Place",       resultat.getRecordedErrorsFor(petriNet1.PetriNet1Package.PLACE));
-        afficherErreurs("- Transition",  resultat.getRecordedErrorsFor(petriNet1.PetriNet1Package.TRANSITION));
-        afficherErreurs("- Arc",         resultat.getRecordedErrorsFor(petriNet1.PetriNet1Package.ARC));
+    private static int afficherResultat(StringBuilder sortie, ValidationResult resultat) {
+        return afficherErreurs(sortie, "- PetriNet",    resultat.getRecordedErrorsFor(petriNet1.PetriNet1Package.PETRI_NET))
+            + afficherErreurs(sortie, "- Place",       resultat.getRecordedErrorsFor(petriNet1.PetriNet1Package.PLACE))
+            + afficherErreurs(sortie, "- Transition",  resultat.getRecordedErrorsFor(petriNet1.PetriNet1Package.TRANSITION))
+            + afficherErreurs(sortie, "- Arc",         resultat.getRecordedErrorsFor(petriNet1.PetriNet1Package.ARC));
+    }
+
+    /**
+     * Charge et valide un modèle, avec son propre ResourceSet et son propre validateur
+     * pour pouvoir valider plusieurs modèles en même temps.
+     * 
+     * @param model chemin du fichier XMI
+     * @param pool pool utilisé pour découper les gros réseaux, ou null
+     * @return compte rendu de la validation
+     */
+    private static CompteRendu valider(String model, ForkJoinPool pool) {
+        StringBuilder sortie = new StringBuilder();
+        sortie.append("\nRésultat de validation pour : " + model + "\n");
+        try {
+            ResourceSet resSet = new ResourceSetImpl();
+            Resource resource = resSet.getResource(URI.createURI(model), true);
+            ValidationResult resultat = new PetriNetValidator().validate(resource, pool);
+            int erreurs = afficherResultat(sortie, resultat);
+            return new CompteRendu(sortie.toString(), erreurs);
+        } catch (RuntimeException e) {
+            sortie.append("=> Impossible de charger le modèle : " + e.getMessage() + "\n");
+            return new CompteRendu(sortie.toString(), -1);
+        }
     }
 
     /**
@@ -66,23 +109,51 @@ public class ValidatePetriNet {
         Resource.Factory.Registry reg = Resource.Factory.Registry.INSTANCE;
         Map<String, Object> m = reg.getExtensionToFactoryMap();
         m.put("xmi", new XMIResourceFactoryImpl());
+        m.put(BinaryResourceFactory.EXTENSION, new BinaryResourceFactory());
 
-        // Création du resourceSet
-        ResourceSet resSet = new ResourceSetImpl();
-
-        // Instanciation du validateur
-        PetriNetValidator validator = new PetriNetValidator();
+        // Options : -j N threads, les autres arguments sont les modèles
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<String> models = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-j")) {
+                // 0 (refusé) si la valeur manque ou n'est pas un entier
+                threads = 0;
+                if (++i < args.length && args[i].matches("\\d{1,6}")) {
+                    threads = Integer.parseInt(args[i]);
+                }
+            } else {
+                models.add(args[i]);
+            }
+        }
+        if (threads < 1 || models.isEmpty()) {
+            System.err.println("Usage : ValidatePetriNet [-j threads] modele.xmi [modele2.xmi ...]");
+            System.exit(2);
+        }
 
-        // Traitement de chaque fichier passé en argument
-        for (String model : args) {
-            URI modelURI = URI.createURI(model);
-            Resource resource = resSet.getResource(modelURI, true);
-            ValidationResult resultat = validator.validate(resource);
+        // Une tâche par fichier (ResourceSet et validateur propres à chaque tâche),
+        // les gros réseaux étant en plus découpés sur le même pool
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        ForkJoinPool decoupage = threads > 1 ? pool : null;
+        List<ForkJoinTask<CompteRendu>> taches = new ArrayList<>();
+        for (String model : models) {
+            taches.add(pool.submit(() -> valider(model, decoupage)));
+        }
 
-            System.out.println("\nRésultat de validation pour : " + model);
-            afficherResultat(resultat);
+        // Affichage dans l'ordre des arguments
+        int enErreur = 0;
+        for (ForkJoinTask<CompteRendu> tache : taches) {
+            CompteRendu compteRendu = tache.join();
+            System.out.print(compteRendu.texte());
+            if (compteRendu.erreurs() != 0) {
+                enErreur++;
+            }
         }
+        pool.shutdown();
 
+        System.out.println("\n" + models.size() + " modèle(s) validé(s), " + enErreur + " en erreur.");
         System.out.println("\nValidation terminée.");
+        if (enErreur > 0) {
+            System.exit(1);
+        }
     }
 }
@@ -1,59 +1,104 @@
 package simplepdl.validation;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+
+import fr.n7.persistence.BinaryResourceFactory;
+
 import simplepdl.SimplepdlPackage;
+import simplepdl.validation.ValidationResult.ValidationError;
 
 /**
  * Réalise la validation de modèles conformes à SimplePDL à l'aide du validateur et
  * affiche le résultat.
  * 
  * Les modèles sont donnés dans les arguments de la ligne de commande, et le résultat
- * est affiché dans le terminal.
+ * est affiché dans le terminal. Les modèles sont validés en parallèle, sur autant de
+ * threads que de processeurs ou sur N threads avec l'option "-j N" ("-j 1" pour une
+ * validation séquentielle).
+ * 
+ * Usage : ValidateSimplepdl [-j threads] modele.xmi [modele2.xmi ...]
  * 
  * @author Guillaume Dupont
  * @version 0.1
  */
 public class ValidateSimplepdl {
 	
+	/**
+	 * Compte rendu de la validation d'un modèle, préparé par la tâche qui l'a validé.
+	 * @param texte texte à afficher
+	 * @param erreurs nombre d'erreurs trouvées (-1 si le modèle n'a pas pu être chargé)
+	 */
+	private record CompteRendu(String texte, int erreurs) {}
+	
 	/**
 	 * Afficher une lsite d'erreur avec un préfixe.
 	 * Le préfixe est affiché avec juste "OK" à la suite si la liste est vide, et sinon
 	 * la liste est affiché avec une erreur par ligne, la source de l'erreur et le message
 	 * associé.
+	 * @param sortie texte auquel ajouter l'affichage
 	 * @param prefix préfixe à afficher avant la liste (potentielle) d'erreurs
 	 * @param errors erreurs à afficher
+	 * @return nombre d'erreurs affichées
 	 */
-	private static void afficherErreurs(String prefix, List<ValidationResult.ValidationError> errors) {
-		System.out.print(prefix + ":");
+	private static int afficherErreurs(StringBuilder sortie, String prefix, List<ValidationError> errors) {
+		sortie.append(prefix + ":");
 		if (errors.isEmpty()) {
-			System.out.println(" OK");
+			sortie.append(" OK\n");
 		} else {
-			System.out.println(" " + errors.size() + " erreurs trouvées");
-			for (ValidationResult.ValidationError error : errors) {
-				System.out.println("=> " + error.toString());
+			sortie.append(" " + errors.size() + " erreurs trouvées\n");
+			for (ValidationError error : errors) {
+				sortie.append("=> " + error.toString() + "\n");
 			}
 		}
+		return errors.size();
 	}
 	
 	/**
 	 * Affiche les erreurs pour les divers éléments du méta-modèle : process, activités,
 	 * dépendances, commentaires.
+	 * @param sortie texte auquel ajouter l'affichage
 	 * @param resultat résultat de la validation calculé auparavant
+	 * @return nombre total d'erreurs
+	 */
+	private static int afficherResultat(StringBuilder sortie, ValidationResult resultat) {
+		return afficherErreurs(sortie, "- Process", resultat.getRecordedErrorsFor(SimplepdlPackage.PROCESS))
+			+ afficherErreurs(sortie, "- WorkDefinition", resultat.getRecordedErrorsFor(SimplepdlPackage.WORK_DEFINITION))
+			+ afficherErreurs(sortie, "- WorkSequence", resultat.getRecordedErrorsFor(SimplepdlPackage.WORK_SEQUENCE))
+			+ afficherErreurs(sortie, "- Guidance", resultat.getRecordedErrorsFor(SimplepdlPackage.GUIDANCE))
+			+ afficherErreurs(sortie, "- Ressources", resultat.getRecordedErrorsFor(SimplepdlPackage.RESSOURCE))
+			+ afficherErreurs(sortie, "- RessourcesRequirements", resultat.getRecordedErrorsFor(SimplepdlPackage.RESSOURCE_REQUIREMENT));
+	}
+	
+	/**
+	 * Charger et valider un modèle. Chaque appel utilise son propre ResourceSet et son
+	 * propre validateur, si bien que plusieurs modèles peuvent être validés en même temps.
+	 * @param model chemin du modèle
+	 * @param pool pool utilisé aussi pour découper les gros process
+	 * @return compte rendu de la validation
 	 */
-	private static void afficherResultat(ValidationResult resultat) {
-		afficherErreurs("- Process", resultat.getRecordedErrorsFor(SimplepdlPackage.PROCESS));
-		afficherErreurs("- WorkDefinition", resultat.getRecordedErrorsFor(SimplepdlPackage.WORK_DEFINITION));
-		afficherErreurs("- WorkSequence", resultat.getRecordedErrorsFor(SimplepdlPackage.WORK_SEQUENCE));
-		afficherErreurs("- Guidance", resultat.getRecordedErrorsFor(SimplepdlPackage.GUIDANCE));
-		afficherErreurs("- Ressources", resultat.getRecordedErrorsFor(SimplepdlPackage.RESSOURCE));
-		afficherErreurs("- RessourcesRequirements", resultat.getRecordedErrorsFor(SimplepdlPackage.RESSOURCE_REQUIREMENT));
+	private static CompteRendu valider(String model, ForkJoinPool pool) {
+		StringBuilder sortie = new StringBuilder();
+		sortie.append("Résultat de validation pour " + model + ":\n");
+		try {
+			ResourceSet resSet = new ResourceSetImpl();
+			Resource resource = resSet.getResource(URI.createURI(model), true);
+			ValidationResult resultat = new SimplePDLValidator().validate(resource, pool);
+			int erreurs = afficherResultat(sortie, resultat);
+			return new CompteRendu(sortie.toString(), erreurs);
+		} catch (RuntimeException e) {
+			sortie.append("=> Impossible de charger le modèle : " + e.getMessage() + "\n");
+			return new CompteRendu(sortie.toString(), -1);
+		}
 	}
 
 	/**
@@ -72,22 +117,51 @@ public class ValidateSimplepdl {
 		Resource.Factory.Registry reg = Resource.Factory.Registry.INSTANCE;
 		Map<String, Object> m = reg.getExtensionToFactoryMap();
 		m.put("xmi", new XMIResourceFactoryImpl());
+		m.put(BinaryResourceFactory.EXTENSION, new BinaryResourceFactory());
 		
-		ResourceSet resSet = new ResourceSetImpl();
+		int threads = Runtime.getRuntime().availableProcessors();
+		List<String> models = new ArrayList<>();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-j")) {
+				// 0 (refusé) si la valeur manque ou n'est pas un entier
+				threads = 0;
+				if (++i < args.length && args[i].matches("\\d{1,6}")) {
+					threads = Integer.parseInt(args[i]);
+				}
+			} else {
+				models.add(args[i]);
+			}
+		}
+		if (threads < 1 || models.isEmpty()) {
+			System.err.println("Usage : ValidateSimplepdl [-j threads] modele.xmi [modele2.xmi ...]");
+			System.exit(2);
+		}
 		
-		SimplePDLValidator validator = new SimplePDLValidator();
-
-		for (String model : args) {
-			URI modelURI = URI.createURI(model);
-			Resource resource = resSet.getResource(modelURI, true);
-			ValidationResult resultat = validator.validate(resource);
-			
-			System.out.println("Résultat de validation pour " + model + ":");
-			afficherResultat(resultat);
+		// Les modèles sont validés en parallèle, et les gros process découpés sur le
+		// même pool ; les comptes rendus sont affichés dans l'ordre des arguments.
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		ForkJoinPool decoupage = threads > 1 ? pool : null;
+		List<ForkJoinTask<CompteRendu>> taches = new ArrayList<>();
+		for (String model : models) {
+			taches.add(pool.submit(() -> valider(model, decoupage)));
 		}
 		
+		int enErreur = 0;
+		for (ForkJoinTask<CompteRendu> tache : taches) {
+			CompteRendu compteRendu = tache.join();
+			System.out.print(compteRendu.texte());
+			if (compteRendu.erreurs() != 0) {
+				enErreur++;
+			}
+		}
+		pool.shutdown();
+		
+		System.out.println(models.size() + " modèle(s) validé(s), " + enErreur + " en erreur.");
 		System.out.println("Fini.");
-	
+		// Code de sortie 1 si un modèle est en erreur ou n'a pas pu être chargé
+		if (enErreur > 0) {
+			System.exit(1);
+		}
 	}
 
 }
@@ -0,0 +1,245 @@
+package fr.n7.petriNet1.simulation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Marquages déjà vus, sur disque, pour la détection différée des doublons.
+ *
+ * Quand le VisitedSet dépasse son budget, ses marquages sont écrits ici dans un
+ * fichier trié et il ne sert plus que de cache. Un successeur qu'il ne connaît pas
+ * est alors un candidat : les candidats d'un niveau sont triés par paquets (fichiers
+ * triés et sans doublon), puis fusionnés en fin de niveau avec l'archive. Ceux qui n'y
+ * sont pas forment le niveau suivant et l'archive est réécrite avec eux : chaque
+ * niveau coûte une lecture et une écriture de l'archive, mais la mémoire ne dépend
+ * plus du nombre de marquages vus.
+ */
+final class VisitedArchive implements Closeable {
+
+    // Ordre des fichiers triés
+    private static final Comparator<byte[]> ORDRE = Arrays::compareUnsigned;
+
+    // Marquages transmis au niveau suivant par appel
+    private static final int TAILLE_LOT = 1024;
+
+    // Fraction du budget déjà atteinte pour trier un paquet plus tôt quand le tas est
+    // presque plein (pas de fichiers minuscules)
+    private static final int PAQUET_MIN = 16;
+
+    private final long budget;
+    private final Path repertoire;
+
+    private List<byte[]> candidats = new ArrayList<>();
+    private long octets;
+    private final List<Path> paquets = new ArrayList<>();
+
+    private Path archive;
+    private long ecrits;
+
+    /**
+     * @param budget octets de candidats gardés en mémoire avant d'être triés sur disque
+     *        (moins si le tas est presque plein)
+     * @param repertoire répertoire des fichiers temporaires
+     */
+    VisitedArchive(long budget, Path repertoire) {
+        this.budget = budget;
+        this.repertoire = repertoire;
+    }
+
+    // Vrai une fois les marquages du VisitedSet archivés
+    boolean isActive() {
+        return this.archive != null;
+    }
+
+    synchronized boolean hasCandidates() {
+        return !this.candidats.isEmpty() || !this.paquets.isEmpty();
+    }
+
+    synchronized void addCandidates(List<byte[]> codes) throws IOException {
+        for (byte[] code : codes) {
+            this.candidats.add(code);
+            this.octets += code.length + Frontier.SURCOUT;
+        }
+        if (this.octets > this.budget
+                || (this.octets > this.budget / PAQUET_MIN && Frontier.memoireBasse())) {
+            this.paquets.add(this.trier(this.candidats));
+            this.candidats = new ArrayList<>();
+            this.octets = 0;
+        }
+    }
+
+    // Octets écrits sur disque (paquets et archives successives)
+    long getSpilledBytes() {
+        return this.ecrits;
+    }
+
+    /**
+     * Archiver le contenu du VisitedSet, dont tous les marquages ont été vus.
+     */
+    void archive(VisitedSet visites) throws IOException {
+        List<byte[]> codes = new ArrayList<>();
+        visites.forEach(codes::add);
+        this.archive = this.trier(codes);
+    }
+
+    /**
+     * Fin de niveau : ajouter au niveau suivant les candidats absents de l'archive,
+     * dans la limite donnée, et les archiver.
+     *
+     * @return nombre de marquages nouveaux
+     */
+    long filter(Frontier suivant, long limite) throws IOException {
+        if (!this.candidats.isEmpty()) {
+            this.paquets.add(this.trier(this.candidats));
+            this.candidats = new ArrayList<>();
+            this.octets = 0;
+        }
+
+        Path nouvelle = this.fichier();
+        long nouveaux = 0;
+        try (Fusion candidats = new Fusion(this.paquets);
+                DataInputStream anciens = ouvrir(this.archive);
+                DataOutputStream sortie = creer(nouvelle)) {
+            List<byte[]> lot = new ArrayList<>(TAILLE_LOT);
+            byte[] ancien = Frontier.lire(anciens);
+            byte[] code;
+            while (nouveaux < limite && (code = candidats.suivant()) != null) {
+                int c = -1;
+                while (ancien != null && (c = ORDRE.compare(ancien, code)) < 0) {
+                    this.ecrits += Frontier.ecrire(sortie, ancien);
+                    ancien = Frontier.lire(anciens);
+                }
+                if (ancien != null && c == 0) {
+                    continue; // déjà vu
+                }
+                this.ecrits += Frontier.ecrire(sortie, code);
+                nouveaux++;
+                lot.add(code);
+                if (lot.size() == TAILLE_LOT) {
+                    suivant.addAll(lot);
+                    lot = new ArrayList<>(TAILLE_LOT);
+                }
+            }
+            for (; ancien != null; ancien = Frontier.lire(anciens)) {
+                this.ecrits += Frontier.ecrire(sortie, ancien);
+            }
+            if (!lot.isEmpty()) {
+                suivant.addAll(lot);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(nouvelle);
+            throw e;
+        }
+
+        Files.deleteIfExists(this.archive);
+        this.archive = nouvelle;
+        for (Path paquet : this.paquets) {
+            Files.deleteIfExists(paquet);
+        }
+        this.paquets.clear();
+        return nouveaux;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Path paquet : this.paquets) {
+            Files.deleteIfExists(paquet);
+        }
+        this.paquets.clear();
+        this.candidats = new ArrayList<>();
+        if (this.archive != null) {
+            Files.deleteIfExists(this.archive);
+            this.archive = null;
+        }
+    }
+
+    // Fichier trié et sans doublon des codes donnés
+    private Path trier(List<byte[]> codes) throws IOException {
+        codes.sort(ORDRE);
+        Path fichier = this.fichier();
+        try (DataOutputStream sortie = creer(fichier)) {
+            byte[] precedent = null;
+            for (byte[] code : codes) {
+                if (precedent == null || !Arrays.equals(precedent, code)) {
+                    this.ecrits += Frontier.ecrire(sortie, code);
+                    precedent = code;
+                }
+            }
+        }
+        return fichier;
+    }
+
+    private Path fichier() throws IOException {
+        Path fichier = Files.createTempFile(this.repertoire, "vus", ".bin");
+        fichier.toFile().deleteOnExit();
+        return fichier;
+    }
+
+    private static DataInputStream ouvrir(Path fichier) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(fichier), 1 << 16));
+    }
+
+    private static DataOutputStream creer(Path fichier) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(fichier), 1 << 16));
+    }
+
+    // Fusion de paquets triés, sans doublon
+    private static final class Fusion implements Closeable {
+
+        private record Tete(byte[] code, DataInputStream entree) {}
+
+        private final PriorityQueue<Tete> tetes = new PriorityQueue<>((a, b) -> ORDRE.compare(a.code, b.code));
+        private final List<DataInputStream> entrees = new ArrayList<>();
+        private byte[] precedent;
+
+        Fusion(List<Path> paquets) throws IOException {
+            try {
+                for (Path paquet : paquets) {
+                    DataInputStream entree = ouvrir(paquet);
+                    this.entrees.add(entree);
+                    this.avancer(entree);
+                }
+            } catch (IOException e) {
+                this.close();
+                throw e;
+            }
+        }
+
+        byte[] suivant() throws IOException {
+            while (!this.tetes.isEmpty()) {
+                Tete tete = this.tetes.poll();
+                this.avancer(tete.entree);
+                if (this.precedent == null || !Arrays.equals(this.precedent, tete.code)) {
+                    this.precedent = tete.code;
+                    return tete.code;
+                }
+            }
+            return null;
+        }
+
+        private void avancer(DataInputStream entree) throws IOException {
+            byte[] code = Frontier.lire(entree);
+            if (code != null) {
+                this.tetes.add(new Tete(code, entree));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (DataInputStream entree : this.entrees) {
+                entree.close();
+            }
+        }
+    }
+}
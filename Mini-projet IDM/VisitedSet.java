@@ -0,0 +1,186 @@
+package fr.n7.petriNet1.simulation;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Ensemble concurrent de marquages codés (MarkingCodec).
+ *
+ * Les codages sont répartis sur SEGMENTS tables à adressage ouvert, chacune protégée
+ * par son propre verrou : des threads qui ajoutent des marquages différents se
+ * bloquent rarement. Une entrée ne coûte que le tableau d'octets, sa référence et son
+ * hash (pas d'objet d'entrée comme dans un ConcurrentHashMap).
+ *
+ * Au-delà de son budget l'ensemble est plein : il ne prend plus de marquage et ne
+ * peut plus dire d'un marquage absent qu'il est nouveau (MAYBE_NEW). Une fois ses
+ * marquages archivés sur disque (VisitedArchive), il ne sert plus que de cache et
+ * tout marquage absent est MAYBE_NEW.
+ */
+final class VisitedSet {
+
+    private static final int SEGMENTS = 256;
+
+    // Coût mémoire d'une entrée en plus de ses octets : en-tête du tableau, puis
+    // référence et hash dans une table remplie entre 3/8 et 3/4
+    private static final int SURCOUT = 16 + 2 * 12;
+
+    enum Status {
+        // déjà dans l'ensemble
+        SEEN,
+        // ajouté, jamais vu auparavant
+        NEW,
+        // absent de l'ensemble, mais peut-être déjà vu (à vérifier sur disque)
+        MAYBE_NEW
+    }
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final long budgetSegment;
+    private volatile boolean plein;
+    private volatile boolean archive;
+
+    /**
+     * @param budget octets au-delà desquels l'ensemble est plein
+     */
+    VisitedSet(long budget) {
+        this.budgetSegment = budget / SEGMENTS;
+        for (int i = 0; i < SEGMENTS; i++) {
+            this.segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * @param code codage d'un marquage (ne doit plus être modifié)
+     * @return SEEN si le marquage est dans l'ensemble, NEW s'il vient d'y être ajouté
+     *         et n'avait jamais été vu, MAYBE_NEW sinon
+     */
+    Status add(byte[] code) {
+        int h = hash(code);
+        Segment segment = this.segments[h >>> 24];
+        synchronized (segment) {
+            if (segment.contains(code, h)) {
+                return Status.SEEN;
+            }
+            if (!this.plein) {
+                segment.add(code, h);
+                if (segment.octets > this.budgetSegment) {
+                    this.plein = true;
+                }
+                if (!this.archive) {
+                    return Status.NEW;
+                }
+            }
+            return Status.MAYBE_NEW;
+        }
+    }
+
+    boolean isFull() {
+        return this.plein;
+    }
+
+    // Les marquages vus sont sur disque : l'ensemble n'est plus qu'un cache
+    void markArchived() {
+        this.archive = true;
+    }
+
+    // Vider le cache (il ne doit plus rien contenir qui ne soit archivé)
+    void clear() {
+        for (Segment segment : this.segments) {
+            synchronized (segment) {
+                segment.vider();
+            }
+        }
+        this.plein = false;
+    }
+
+    void forEach(Consumer<byte[]> action) {
+        for (Segment segment : this.segments) {
+            synchronized (segment) {
+                for (byte[] code : segment.codes) {
+                    if (code != null) {
+                        action.accept(code);
+                    }
+                }
+            }
+        }
+    }
+
+    long size() {
+        long n = 0;
+        for (Segment segment : this.segments) {
+            synchronized (segment) {
+                n += segment.taille;
+            }
+        }
+        return n;
+    }
+
+    private static int hash(byte[] code) {
+        // finaliseur de MurmurHash3 : les 8 bits de poids fort choisissent le segment
+        int h = Arrays.hashCode(code);
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Segment {
+        byte[][] codes = new byte[64][];
+        int[] hashs = new int[64];
+        int taille;
+        long octets;
+
+        boolean contains(byte[] code, int h) {
+            int masque = this.codes.length - 1;
+            int i = h & masque;
+            while (this.codes[i] != null) {
+                if (this.hashs[i] == h && Arrays.equals(this.codes[i], code)) {
+                    return true;
+                }
+                i = (i + 1) & masque;
+            }
+            return false;
+        }
+
+        // code absent de la table
+        void add(byte[] code, int h) {
+            if ((this.taille + 1) * 4 > this.codes.length * 3) {
+                this.agrandir();
+            }
+            int masque = this.codes.length - 1;
+            int i = h & masque;
+            while (this.codes[i] != null) {
+                i = (i + 1) & masque;
+            }
+            this.codes[i] = code;
+            this.hashs[i] = h;
+            this.taille++;
+            this.octets += code.length + SURCOUT;
+        }
+
+        void vider() {
+            this.codes = new byte[64][];
+            this.hashs = new int[64];
+            this.taille = 0;
+            this.octets = 0;
+        }
+
+        private void agrandir() {
+            byte[][] anciens = this.codes;
+            int[] anciensHashs = this.hashs;
+            this.codes = new byte[anciens.length * 2][];
+            this.hashs = new int[anciens.length * 2];
+            int masque = this.codes.length - 1;
+            for (int j = 0; j < anciens.length; j++) {
+                if (anciens[j] != null) {
+                    int i = anciensHashs[j] & masque;
+                    while (this.codes[i] != null) {
+                        i = (i + 1) & masque;
+                    }
+                    this.codes[i] = anciens[j];
+                    this.hashs[i] = anciensHashs[j];
+                }
+            }
+        }
+    }
+}